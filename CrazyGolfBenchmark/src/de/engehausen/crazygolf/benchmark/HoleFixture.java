@@ -0,0 +1,120 @@
+package de.engehausen.crazygolf.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import javax.microedition.lcdui.Graphics;
+import javax.microedition.lcdui.Image;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import de.engehausen.mobile.crazygolf.Constants;
+import de.engehausen.mobile.crazygolf.Element;
+import de.engehausen.mobile.crazygolf.ElementReader;
+import de.engehausen.mobile.crazygolf.model.Ball;
+import de.engehausen.mobile.crazygolf.model.Course;
+import de.engehausen.mobile.crazygolf.model.Fixed;
+import de.engehausen.mobile.crazygolf.model.Hole;
+import de.engehausen.mobile.crazygolf.model.Rectangle;
+import de.engehausen.mobile.crazygolf.renderer.HolePainter;
+
+/**
+ * One hole of the sample course, set up as the game sets it up: the
+ * hole is rendered by the {@link HolePainter} and the terrain is
+ * computed by the {@link Ball}. A fan of strokes is played from the
+ * center of every start zone; the strokes are played again by the
+ * benchmarks, and the states of the ball met while playing them are
+ * sampled for the benchmarks of the single physics phases.
+ */
+@State(Scope.Thread)
+public class HoleFixture {
+
+	/** the course the holes are taken from */
+	public static final String COURSE = "/00.crs";
+	/** the maximum number of steps of a stroke; balls moving longer are considered stuck */
+	public static final int MAX_STEPS = 2000;
+
+	private static final int WIDTH = 320, HEIGHT = 480;
+	private static final int ANGLE_STEP = 30; // degrees
+	private static final int[] SPEEDS = { 4, 12, 28 }; // pixels per step
+
+	/** the number of the hole, starting at one */
+	@Param({ "1", "2", "3", "4", "5", "6", "7", "8", "9", "10", "11", "12", "13", "14", "15", "16", "17", "18" })
+	public int number;
+
+	Hole hole;
+	Image background;
+	Image screen;
+	Graphics graphics;
+	Ball ball;
+	Probe probe;
+	int[][] strokes; // start position (pixels) and speed (fixed-point)
+	int[][] steps;
+	int[][] contacts;
+
+	/**
+	 * Sets up the hole and samples the states of the ball.
+	 * @throws IOException in case of error
+	 */
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		final Element[] elements = ElementReader.getInstance().read(HoleFixture.class.getResourceAsStream(Constants.DEFAULT_ELEMENTS));
+		final InputStream in = HoleFixture.class.getResourceAsStream(COURSE);
+		try {
+			hole = Course.load(elements, in).getHoles()[number-1];
+		} finally {
+			in.close();
+		}
+		final HolePainter painter = new HolePainter(elements, WIDTH, HEIGHT);
+		background = Image.createImage(WIDTH, HEIGHT);
+		painter.render(background.getGraphics(), hole);
+		screen = Image.createImage(WIDTH, HEIGHT);
+		graphics = screen.getGraphics();
+		graphics.drawImage(background, 0, 0, Graphics.TOP|Graphics.LEFT);
+		ball = new Ball(painter.createImage(elements[0]), Image.createImage("/colors.png"), elements[0], WIDTH, HEIGHT);
+		ball.setBackground(background, hole);
+		createStrokes();
+		sample();
+	}
+
+	/**
+	 * Creates the fan of strokes played from every start zone.
+	 */
+	private void createStrokes() {
+		final Rectangle[] zones = hole.getStartZones();
+		strokes = new int[zones.length*(360/ANGLE_STEP)*SPEEDS.length][];
+		int i = 0;
+		for (Rectangle zone : zones) {
+			for (int angle = 0; angle < 360; angle += ANGLE_STEP) {
+				final double rad = Math.toRadians(angle);
+				for (int speed : SPEEDS) {
+					strokes[i++] = new int[] { zone.cx, zone.cy, Fixed.toFixed(Math.cos(rad)*speed), Fixed.toFixed(Math.sin(rad)*speed) };
+				}
+			}
+		}
+	}
+
+	/**
+	 * Plays all strokes on the terrain of the ball and samples the states
+	 * of the ball.
+	 */
+	private void sample() {
+		probe = new Probe();
+		probe.setRecording(true);
+		for (int[] stroke : strokes) {
+			probe.setPosition(stroke[0], stroke[1]);
+			probe.addSpeed(stroke[2], stroke[3]);
+			for (int i = MAX_STEPS; i-->0 && probe.isMoving(); ) {
+				probe.step(ball.getTerrain());
+			}
+		}
+		probe.setRecording(false);
+		steps = probe.getSteps();
+		contacts = probe.getContacts();
+	}
+
+}
@@ -0,0 +1,109 @@
+package de.engehausen.crazygolf.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import de.engehausen.mobile.crazygolf.model.Ball;
+import de.engehausen.mobile.crazygolf.model.Fixed;
+import de.engehausen.mobile.crazygolf.model.HoleTerrain;
+
+/**
+ * Benchmarks of the hot path of the ball physics, run on every hole
+ * of the sample course. Each benchmark works through all samples
+ * of its hole per invocation, so the numbers of a hole can be compared
+ * across changes of the physics, but not across holes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PhysicsBenchmark {
+
+	/**
+	 * Computes the terrain of the hole from its rendered background,
+	 * as the game does at the start of every hole.
+	 * @param fixture the hole
+	 * @return the ball
+	 */
+	@Benchmark
+	public Ball terrain(final HoleFixture fixture) {
+		fixture.ball.setBackground(fixture.background, fixture.hole);
+		return fixture.ball;
+	}
+
+	/**
+	 * Moves the ball up to the first contact with a wall, for all states
+	 * sampled before a physics step.
+	 * @param fixture the hole
+	 * @param blackhole sink for the results
+	 */
+	@Benchmark
+	public void sweep(final HoleFixture fixture, final Blackhole blackhole) {
+		final Probe probe = fixture.probe;
+		final HoleTerrain terrain = fixture.ball.getTerrain();
+		for (int[] state : fixture.steps) {
+			probe.setState(state);
+			blackhole.consume(probe.sweep(terrain, state[4]));
+		}
+	}
+
+	/**
+	 * Bounces the ball off the wall, for all states sampled at a contact.
+	 * @param fixture the hole
+	 * @param blackhole sink for the results
+	 */
+	@Benchmark
+	public void performCollision(final HoleFixture fixture, final Blackhole blackhole) {
+		final Probe probe = fixture.probe;
+		final HoleTerrain terrain = fixture.ball.getTerrain();
+		for (int[] state : fixture.contacts) {
+			probe.setState(state);
+			probe.performCollision(terrain);
+			blackhole.consume(probe.getSpeedX());
+		}
+	}
+
+	/**
+	 * Looks up the material under the ball, for all states sampled
+	 * before a physics step.
+	 * @param fixture the hole
+	 * @param blackhole sink for the results
+	 */
+	@Benchmark
+	public void getMaterial(final HoleFixture fixture, final Blackhole blackhole) {
+		final HoleTerrain terrain = fixture.ball.getTerrain();
+		for (int[] state : fixture.steps) {
+			blackhole.consume(terrain.getMaterial(Fixed.toInt(state[0]), Fixed.toInt(state[1])));
+		}
+	}
+
+	/**
+	 * Plays all strokes of the hole as the game plays them: one physics
+	 * step, then the ball is painted over the background of the screen.
+	 * @param fixture the hole
+	 * @return the ball
+	 */
+	@Benchmark
+	public Ball moveAndPaint(final HoleFixture fixture) {
+		final Ball ball = fixture.ball;
+		for (int[] stroke : fixture.strokes) {
+			ball.setPosition(stroke[0], stroke[1]);
+			ball.addSpeed(stroke[2], stroke[3]);
+			for (int i = HoleFixture.MAX_STEPS; i-->0 && ball.isMoving(); ) {
+				ball.move();
+				ball.paint(fixture.graphics, fixture.background, Fixed.ONE);
+			}
+		}
+		return ball;
+	}
+
+}
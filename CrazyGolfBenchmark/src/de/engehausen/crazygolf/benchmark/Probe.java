@@ -0,0 +1,86 @@
+package de.engehausen.crazygolf.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import de.engehausen.mobile.crazygolf.model.Fixed;
+import de.engehausen.mobile.crazygolf.model.Simulation;
+import de.engehausen.mobile.crazygolf.model.Terrain;
+
+/**
+ * Simulation giving access to the single phases of a physics step.
+ * While recording, the state of the ball is sampled before every step
+ * and at every contact with a wall, so that the phases can be measured
+ * on the situations which actually occur on a hole.
+ */
+public class Probe extends Simulation {
+
+	private final List<int[]> steps = new ArrayList<int[]>();
+	private final List<int[]> contacts = new ArrayList<int[]>();
+	private boolean recording;
+
+	/**
+	 * Sets whether to sample the state of the ball.
+	 * @param flag <code>true</code> to sample the state of the ball.
+	 */
+	public void setRecording(final boolean flag) {
+		recording = flag;
+	}
+
+	/**
+	 * Returns the states sampled before the physics steps.
+	 * @return the states, see {@link #setState(int[])}.
+	 */
+	public int[][] getSteps() {
+		return steps.toArray(new int[steps.size()][]);
+	}
+
+	/**
+	 * Returns the states sampled at the contacts with walls.
+	 * @return the states, see {@link #setState(int[])}.
+	 */
+	public int[][] getContacts() {
+		return contacts.toArray(new int[contacts.size()][]);
+	}
+
+	/**
+	 * Sets the ball to a sampled state.
+	 * @param state the position, the speed and the squared speed of the ball (fixed-point)
+	 */
+	public void setState(final int[] state) {
+		setExactPosition(state[0], state[1]);
+		addSpeed(state[2], state[3]);
+	}
+
+	@Override
+	public int step(final Terrain terrain) {
+		if (recording) {
+			steps.add(sample());
+		}
+		return super.step(terrain);
+	}
+
+	@Override
+	public boolean sweep(final Terrain terrain, final int speed) {
+		final boolean result = super.sweep(terrain, speed);
+		if (result && recording) {
+			contacts.add(sample());
+		}
+		return result;
+	}
+
+	@Override
+	public void performCollision(final Terrain terrain) {
+		super.performCollision(terrain);
+	}
+
+	/**
+	 * Returns the current state of the ball.
+	 * @return the position, the speed and the squared speed of the ball (fixed-point)
+	 */
+	private int[] sample() {
+		final int vx = getSpeedX(), vy = getSpeedY();
+		return new int[] { getX(), getY(), vx, vy, Fixed.mul(vx, vx)+Fixed.mul(vy, vy) };
+	}
+
+}
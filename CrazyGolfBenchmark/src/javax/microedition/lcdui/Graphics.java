@@ -0,0 +1,110 @@
+package javax.microedition.lcdui;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+
+import javax.microedition.lcdui.game.Sprite;
+
+/**
+ * Java SE stand-in for the MIDP graphics, painting through a
+ * {@link Graphics2D}. Only what the game code under benchmark uses
+ * is implemented; images are always anchored at their top left corner.
+ */
+public class Graphics {
+
+	/** anchor: horizontal center */
+	public static final int HCENTER = 1;
+	/** anchor: vertical center */
+	public static final int VCENTER = 2;
+	/** anchor: left */
+	public static final int LEFT = 4;
+	/** anchor: right */
+	public static final int RIGHT = 8;
+	/** anchor: top */
+	public static final int TOP = 16;
+	/** anchor: bottom */
+	public static final int BOTTOM = 32;
+
+	private final Graphics2D graphics;
+
+	/**
+	 * Creates the graphics.
+	 * @param aGraphics the graphics to paint through, must not be <code>null</code>.
+	 */
+	Graphics(final Graphics2D aGraphics) {
+		graphics = aGraphics;
+	}
+
+	/**
+	 * Sets the color to paint with.
+	 * @param rgb the color (RGB)
+	 */
+	public void setColor(final int rgb) {
+		graphics.setColor(new Color(rgb));
+	}
+
+	/**
+	 * Fills a rectangle with the current color.
+	 * @param x x-position of the rectangle
+	 * @param y y-position of the rectangle
+	 * @param width the width of the rectangle
+	 * @param height the height of the rectangle
+	 */
+	public void fillRect(final int x, final int y, final int width, final int height) {
+		graphics.fillRect(x, y, width, height);
+	}
+
+	/**
+	 * Paints an image.
+	 * @param img the image to paint, must not be <code>null</code>.
+	 * @param x x-position of the image
+	 * @param y y-position of the image
+	 * @param anchor the anchor, must be <code>TOP|LEFT</code>.
+	 */
+	public void drawImage(final Image img, final int x, final int y, final int anchor) {
+		drawRegion(img, 0, 0, img.getWidth(), img.getHeight(), Sprite.TRANS_NONE, x, y, anchor);
+	}
+
+	/**
+	 * Paints a region of an image. Of the transformations only those
+	 * keeping width and height (mirroring and rotating by 180 degrees)
+	 * are supported.
+	 * @param src the image to paint from, must not be <code>null</code>.
+	 * @param xSrc x-position of the region
+	 * @param ySrc y-position of the region
+	 * @param width the width of the region
+	 * @param height the height of the region
+	 * @param transform the transformation to apply to the region
+	 * @param xDest x-position to paint at
+	 * @param yDest y-position to paint at
+	 * @param anchor the anchor, must be <code>TOP|LEFT</code>.
+	 */
+	public void drawRegion(final Image src, final int xSrc, final int ySrc, final int width, final int height, final int transform, final int xDest, final int yDest, final int anchor) {
+		if (anchor != (TOP|LEFT)) {
+			throw new IllegalArgumentException("unsupported anchor "+anchor);
+		}
+		int sx1 = xSrc, sy1 = ySrc, sx2 = xSrc+width, sy2 = ySrc+height;
+		switch (transform) {
+			case Sprite.TRANS_NONE:
+				break;
+			case Sprite.TRANS_MIRROR:
+				sx1 = sx2;
+				sx2 = xSrc;
+				break;
+			case Sprite.TRANS_MIRROR_ROT180:
+				sy1 = sy2;
+				sy2 = ySrc;
+				break;
+			case Sprite.TRANS_ROT180:
+				sx1 = sx2;
+				sx2 = xSrc;
+				sy1 = sy2;
+				sy2 = ySrc;
+				break;
+			default:
+				throw new IllegalArgumentException("unsupported transformation "+transform);
+		}
+		graphics.drawImage(src.getImage(), xDest, yDest, xDest+width, yDest+height, sx1, sy1, sx2, sy2, null);
+	}
+
+}
@@ -0,0 +1,153 @@
+package javax.microedition.lcdui;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Java SE stand-in for the MIDP image, backed by a {@link BufferedImage}.
+ * Only what the game code under benchmark uses is implemented.
+ */
+public class Image {
+
+	private final BufferedImage image;
+	private final boolean mutable;
+
+	/**
+	 * Creates the image.
+	 * @param anImage the backing image, must not be <code>null</code>.
+	 * @param isMutable whether the image can be painted on
+	 */
+	private Image(final BufferedImage anImage, final boolean isMutable) {
+		image = anImage;
+		mutable = isMutable;
+	}
+
+	/**
+	 * Creates a mutable image filled with white, as MIDP does.
+	 * @param width the width of the image
+	 * @param height the height of the image
+	 * @return the image, never <code>null</code>.
+	 */
+	public static Image createImage(final int width, final int height) {
+		final BufferedImage result = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		final Graphics2D g = result.createGraphics();
+		try {
+			g.setColor(Color.WHITE);
+			g.fillRect(0, 0, width, height);
+		} finally {
+			g.dispose();
+		}
+		return new Image(result, true);
+	}
+
+	/**
+	 * Reads an immutable image from the class path.
+	 * @param name the name of the image resource, must not be <code>null</code>.
+	 * @return the image, never <code>null</code>.
+	 * @throws IOException if the image cannot be read
+	 */
+	public static Image createImage(final String name) throws IOException {
+		final InputStream in = Image.class.getResourceAsStream(name);
+		if (in == null) {
+			throw new IOException("cannot find "+name);
+		}
+		try {
+			final BufferedImage read = ImageIO.read(in);
+			final BufferedImage result = new BufferedImage(read.getWidth(), read.getHeight(), BufferedImage.TYPE_INT_ARGB);
+			final Graphics2D g = result.createGraphics();
+			try {
+				g.drawImage(read, 0, 0, null);
+			} finally {
+				g.dispose();
+			}
+			return new Image(result, false);
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Creates an immutable image from a region of another image.
+	 * @param source the image to copy from, must not be <code>null</code>.
+	 * @param x x-position of the region
+	 * @param y y-position of the region
+	 * @param width the width of the region
+	 * @param height the height of the region
+	 * @param transform the transformation, see {@link Graphics#drawRegion(Image, int, int, int, int, int, int, int, int)}
+	 * @return the image, never <code>null</code>.
+	 */
+	public static Image createImage(final Image source, final int x, final int y, final int width, final int height, final int transform) {
+		final BufferedImage result = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+		final Graphics2D g = result.createGraphics();
+		try {
+			new Graphics(g).drawRegion(source, x, y, width, height, transform, 0, 0, Graphics.TOP|Graphics.LEFT);
+		} finally {
+			g.dispose();
+		}
+		return new Image(result, false);
+	}
+
+	/**
+	 * Returns a graphics to paint on the image.
+	 * @return a graphics to paint on the image, never <code>null</code>.
+	 * @throws IllegalStateException if the image is immutable
+	 */
+	public Graphics getGraphics() {
+		if (!mutable) {
+			throw new IllegalStateException("immutable image");
+		}
+		return new Graphics(image.createGraphics());
+	}
+
+	/**
+	 * Returns the width of the image.
+	 * @return the width of the image.
+	 */
+	public int getWidth() {
+		return image.getWidth();
+	}
+
+	/**
+	 * Returns the height of the image.
+	 * @return the height of the image.
+	 */
+	public int getHeight() {
+		return image.getHeight();
+	}
+
+	/**
+	 * Returns whether the image can be painted on.
+	 * @return whether the image can be painted on.
+	 */
+	public boolean isMutable() {
+		return mutable;
+	}
+
+	/**
+	 * Copies pixels of the image into the given array.
+	 * @param rgbData the array to copy the pixels (ARGB) into
+	 * @param offset the index of the first pixel in the array
+	 * @param scanlength the distance of rows in the array
+	 * @param x x-position of the region to copy
+	 * @param y y-position of the region to copy
+	 * @param width the width of the region to copy
+	 * @param height the height of the region to copy
+	 */
+	public void getRGB(final int[] rgbData, final int offset, final int scanlength, final int x, final int y, final int width, final int height) {
+		image.getRGB(x, y, width, height, rgbData, offset, scanlength);
+	}
+
+	/**
+	 * Returns the backing image.
+	 * @return the backing image.
+	 */
+	BufferedImage getImage() {
+		return image;
+	}
+
+}
@@ -0,0 +1,30 @@
+package javax.microedition.lcdui.game;
+
+/**
+ * Java SE stand-in for the MIDP sprite; only the transformation
+ * constants are provided.
+ */
+public final class Sprite {
+
+	/** transformation: none */
+	public static final int TRANS_NONE = 0;
+	/** transformation: mirrored and rotated by 180 degrees */
+	public static final int TRANS_MIRROR_ROT180 = 1;
+	/** transformation: mirrored */
+	public static final int TRANS_MIRROR = 2;
+	/** transformation: rotated by 180 degrees */
+	public static final int TRANS_ROT180 = 3;
+	/** transformation: mirrored and rotated by 270 degrees */
+	public static final int TRANS_MIRROR_ROT270 = 4;
+	/** transformation: rotated by 90 degrees */
+	public static final int TRANS_ROT90 = 5;
+	/** transformation: rotated by 270 degrees */
+	public static final int TRANS_ROT270 = 6;
+	/** transformation: mirrored and rotated by 90 degrees */
+	public static final int TRANS_MIRROR_ROT90 = 7;
+
+	private Sprite() {
+		// constants only
+	}
+
+}
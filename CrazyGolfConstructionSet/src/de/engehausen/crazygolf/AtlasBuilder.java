@@ -0,0 +1,277 @@
+package de.engehausen.crazygolf;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.awt.image.IndexColorModel;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.imageio.ImageIO;
+
+import de.engehausen.mobile.crazygolf.Constants;
+import de.engehausen.mobile.crazygolf.Element;
+import de.engehausen.mobile.crazygolf.ElementReader;
+
+/**
+ * Packs the graphics of all elements into a few atlas images and
+ * writes the index telling where the graphics of each element file
+ * ended up, see {@link Constants#ATLAS_INDEX}. The game then reads a
+ * few images instead of one per element. The graphics are packed on
+ * shelves, highest first; the graphics of one file stay together, so
+ * that the offsets of the elements within their file remain valid.
+ * <p>Run from the command line (or through the <code>atlas</code> target
+ * of the build file) whenever the element graphics change:
+ * <code>java de.engehausen.crazygolf.AtlasBuilder [resource directory]</code>;
+ * the atlas images must be listed in the build properties of the game.</p>
+ */
+public class AtlasBuilder {
+
+	private static final int VERSION = 1;
+	private static final int PAGE_SIZE = 512; // the preferred maximum width and height of an atlas image
+	private static final String PAGE_NAME = "/atlas%d.png";
+
+	private final List<Page> pages;
+	private final int pageWidth;
+
+	/**
+	 * Creates the builder.
+	 * @param maxWidth the width of the widest graphics to pack
+	 */
+	public AtlasBuilder(final int maxWidth) {
+		pages = new ArrayList<Page>();
+		pageWidth = Math.max(PAGE_SIZE, maxWidth);
+	}
+
+	/**
+	 * Packs the given graphics.
+	 * @param graphics the graphics by file name, must not be <code>null</code>.
+	 * @return the position of the graphics by file name, never <code>null</code>.
+	 */
+	public Map<String, Position> pack(final Map<String, BufferedImage> graphics) {
+		final List<String> names = new ArrayList<String>(graphics.keySet());
+		Collections.sort(names, new Comparator<String>() {
+			@Override
+			public int compare(final String a, final String b) {
+				final BufferedImage ia = graphics.get(a), ib = graphics.get(b);
+				if (ia.getHeight() != ib.getHeight()) {
+					return ib.getHeight()-ia.getHeight();
+				}
+				return ib.getWidth()-ia.getWidth();
+			}
+		});
+		final Map<String, Position> result = new LinkedHashMap<String, Position>();
+		for (String name : names) {
+			final BufferedImage image = graphics.get(name);
+			Position position = null;
+			for (int i = 0; i < pages.size() && position == null; i++) {
+				position = pages.get(i).place(image);
+			}
+			if (position == null) {
+				final Page page = new Page(pages.size());
+				pages.add(page);
+				position = page.place(image);
+			}
+			result.put(name, position);
+		}
+		return result;
+	}
+
+	/**
+	 * Writes the atlas images and the index.
+	 * @param directory the resource directory to write to, must not be <code>null</code>.
+	 * @param positions the positions of the graphics, must not be <code>null</code>.
+	 * @throws IOException in case of error
+	 */
+	public void write(final File directory, final Map<String, Position> positions) throws IOException {
+		for (Page page : pages) {
+			ImageIO.write(page.toImage(), "png", new File(directory, page.getName()));
+		}
+		final DataOutputStream out = new DataOutputStream(new FileOutputStream(new File(directory, Constants.ATLAS_INDEX)));
+		try {
+			out.writeByte(VERSION);
+			out.writeByte(pages.size());
+			for (Page page : pages) {
+				out.writeUTF(page.getName());
+			}
+			out.writeShort(positions.size());
+			for (Map.Entry<String, Position> entry : positions.entrySet()) {
+				final Position position = entry.getValue();
+				out.writeUTF(entry.getKey());
+				out.writeByte(position.page);
+				out.writeShort(position.x);
+				out.writeShort(position.y);
+			}
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Returns an image using a palette, as the graphics of the elements
+	 * do, if the given image uses no more than 256 colors; all invisible
+	 * pixels count as one color.
+	 * @param image the image, must not be <code>null</code>.
+	 * @return the image using a palette, or the given image if it uses too many colors.
+	 */
+	public static BufferedImage toPaletteImage(final BufferedImage image) {
+		final int w = image.getWidth(), h = image.getHeight();
+		final int[] pixels = image.getRGB(0, 0, w, h, null, 0, w);
+		final Map<Integer, Integer> palette = new LinkedHashMap<Integer, Integer>();
+		for (int i = pixels.length; i-->0; ) {
+			if ((pixels[i]>>>24) == 0) {
+				pixels[i] = 0;
+			}
+			final Integer color = Integer.valueOf(pixels[i]);
+			if (!palette.containsKey(color)) {
+				if (palette.size() == 256) {
+					return image;
+				}
+				palette.put(color, Integer.valueOf(palette.size()));
+			}
+		}
+		final int[] colors = new int[palette.size()];
+		for (Map.Entry<Integer, Integer> entry : palette.entrySet()) {
+			colors[entry.getValue().intValue()] = entry.getKey().intValue();
+		}
+		final BufferedImage result = new BufferedImage(w, h, BufferedImage.TYPE_BYTE_INDEXED,
+			new IndexColorModel(8, colors.length, colors, 0, true, -1, DataBuffer.TYPE_BYTE));
+		result.setRGB(0, 0, w, h, pixels, 0, w);
+		return result;
+	}
+
+	/**
+	 * Builds the atlas for the elements of a resource directory.
+	 * @param args the resource directory, which holds the elements definition
+	 */
+	public static void main(final String[] args) throws IOException {
+		if (args.length < 1) {
+			System.err.println("usage: AtlasBuilder [resource directory]");
+			return;
+		}
+		final File directory = new File(args[0]);
+		final Element[] elements;
+		final InputStream in = new FileInputStream(new File(directory, Constants.DEFAULT_ELEMENTS));
+		try {
+			elements = ElementReader.getInstance().read(in);
+		} finally {
+			in.close();
+		}
+		final Map<String, BufferedImage> graphics = new LinkedHashMap<String, BufferedImage>();
+		int maxWidth = 0;
+		for (Element element : elements) {
+			if (!graphics.containsKey(element.getFileName())) {
+				final BufferedImage image = ImageIO.read(new File(directory, element.getFileName()));
+				if (image == null) {
+					throw new IOException("cannot read "+element.getFileName());
+				}
+				graphics.put(element.getFileName(), image);
+				maxWidth = Math.max(maxWidth, image.getWidth());
+			}
+		}
+		final AtlasBuilder builder = new AtlasBuilder(maxWidth);
+		final Map<String, Position> positions = builder.pack(graphics);
+		builder.write(directory, positions);
+		System.out.println(graphics.size()+" images packed into "+builder.pages.size()+" atlas images");
+	}
+
+	/**
+	 * The position of graphics in the atlas.
+	 */
+	public static class Position {
+
+		/** the number of the atlas image */
+		public final int page;
+		/** the position in the atlas image */
+		public final int x, y;
+
+		/**
+		 * Creates the position.
+		 * @param aPage the number of the atlas image
+		 * @param anX the x-position in the atlas image
+		 * @param anY the y-position in the atlas image
+		 */
+		public Position(final int aPage, final int anX, final int anY) {
+			page = aPage;
+			x = anX;
+			y = anY;
+		}
+
+	}
+
+	/**
+	 * An atlas image under construction. Graphics are placed on
+	 * shelves from the top; a shelf is as high as the first
+	 * graphics placed on it.
+	 */
+	private class Page {
+
+		private final int number;
+		private final List<int[]> shelves; // y, height and used width of each shelf
+		private final Map<BufferedImage, Position> placed;
+		private int height;
+
+		Page(final int aNumber) {
+			number = aNumber;
+			shelves = new ArrayList<int[]>();
+			placed = new LinkedHashMap<BufferedImage, Position>();
+		}
+
+		/**
+		 * Returns the name of the atlas image resource.
+		 * @return the name of the atlas image resource.
+		 */
+		public String getName() {
+			return String.format(PAGE_NAME, Integer.valueOf(number));
+		}
+
+		/**
+		 * Places the given graphics on the page.
+		 * @param image the graphics to place, must not be <code>null</code>.
+		 * @return the position of the graphics, or <code>null</code> if the page is full.
+		 */
+		public Position place(final BufferedImage image) {
+			for (int[] shelf : shelves) {
+				if (image.getHeight() <= shelf[1] && shelf[2]+image.getWidth() <= pageWidth) {
+					final Position result = new Position(number, shelf[2], shelf[0]);
+					shelf[2] += image.getWidth();
+					placed.put(image, result);
+					return result;
+				}
+			}
+			if (height+image.getHeight() > PAGE_SIZE && !shelves.isEmpty()) {
+				return null;
+			}
+			final Position result = new Position(number, 0, height);
+			shelves.add(new int[] { height, image.getHeight(), image.getWidth() });
+			height += image.getHeight();
+			placed.put(image, result);
+			return result;
+		}
+
+		/**
+		 * Paints the graphics placed into an image.
+		 * @return the image, never <code>null</code>.
+		 */
+		public BufferedImage toImage() {
+			final BufferedImage argb = new BufferedImage(pageWidth, height, BufferedImage.TYPE_INT_ARGB);
+			for (Map.Entry<BufferedImage, Position> entry : placed.entrySet()) {
+				final BufferedImage image = entry.getKey();
+				final int w = image.getWidth(), h = image.getHeight();
+				argb.setRGB(entry.getValue().x, entry.getValue().y, w, h, image.getRGB(0, 0, w, h, null, 0, w), 0, w);
+			}
+			return toPaletteImage(argb);
+		}
+
+	}
+
+}
@@ -0,0 +1,135 @@
+package de.engehausen.crazygolf;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileFilter;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import de.engehausen.mobile.crazygolf.Constants;
+
+/**
+ * Writes the index of the courses of the game, see {@link Constants#COURSE_INDEX},
+ * so that the game does not have to look for course files when starting.
+ * For each course file <code>nn.crs</code> the index holds the name of the
+ * course, the offsets of the descriptions of its holes in the file, and
+ * for the courses painted in advance the directory <code>nn</code> of the
+ * images of its holes (see {@link HoleBaker}); the game reads a hole only
+ * when play reaches it. Images older than their course are refused, as
+ * the game would play the holes with outdated walls.
+ * <p>Run from the command line (or through the <code>index</code> target
+ * of the build file, which paints the holes first) whenever courses are
+ * added or changed:
+ * <code>java de.engehausen.crazygolf.CourseIndexer [resource directory] [painted course]...</code>.</p>
+ */
+public class CourseIndexer {
+
+	private static final String EXTENSION = ".crs";
+	private static final int HOLES = 18;
+
+	/**
+	 * Returns the index line of a course.
+	 * @param directory the resource directory, must not be <code>null</code>.
+	 * @param file the course file, must not be <code>null</code>.
+	 * @param baked whether the holes of the course are painted in advance
+	 * @return the index line, without line separator.
+	 * @throws IOException in case of error, or if the images of the holes are missing or outdated
+	 */
+	public static String index(final File directory, final File file, final boolean baked) throws IOException {
+		final byte[] data = read(file);
+		final List<Integer> lines = new ArrayList<Integer>();
+		lines.add(Integer.valueOf(0));
+		for (int i = 0; i < data.length; i++) {
+			if (data[i] == '\n' && i+1 < data.length) {
+				lines.add(Integer.valueOf(i+1));
+			}
+		}
+		// line 1 is the name, then each hole takes a line for its par and one for its elements
+		final int holes = Math.min(HOLES, (lines.size()-1)/2);
+		if (holes == 0) {
+			throw new IOException("no holes in "+file);
+		}
+		final String base = file.getName().substring(0, file.getName().length()-EXTENSION.length());
+		final StringBuilder sb = new StringBuilder(128);
+		sb.append('/').append(file.getName()).append(',');
+		if (baked) {
+			for (int i = 0; i < holes; i++) {
+				final File image = new File(new File(directory, base), String.format("%02d.png", Integer.valueOf(i+1)));
+				if (!image.isFile() || image.lastModified() < file.lastModified()) {
+					throw new IOException(image+" is missing or older than "+file+", paint the holes again");
+				}
+			}
+			sb.append('/').append(base).append('/');
+		}
+		sb.append(',').append(holes);
+		for (int i = 0; i < holes; i++) {
+			sb.append(',').append(lines.get(1+2*i));
+		}
+		sb.append(',').append(new String(data, 0, lines.get(1).intValue()-1, "ISO-8859-1"));
+		return sb.toString();
+	}
+
+	/**
+	 * Reads a file.
+	 * @param file the file to read, must not be <code>null</code>.
+	 * @return the contents of the file.
+	 * @throws IOException in case of error
+	 */
+	private static byte[] read(final File file) throws IOException {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream((int) file.length());
+		final InputStream in = new FileInputStream(file);
+		try {
+			final byte[] buffer = new byte[4096];
+			for (int len = in.read(buffer); len > 0; len = in.read(buffer)) {
+				out.write(buffer, 0, len);
+			}
+		} finally {
+			in.close();
+		}
+		return out.toByteArray();
+	}
+
+	/**
+	 * Writes the index of the courses of a resource directory.
+	 * @param args the resource directory, which holds the course files, and
+	 * the names of the course files painted in advance without extension
+	 */
+	public static void main(final String[] args) throws IOException {
+		if (args.length < 1) {
+			System.err.println("usage: CourseIndexer [resource directory] [painted course]...");
+			return;
+		}
+		final Set<String> baked = new HashSet<String>(Arrays.asList(args).subList(1, args.length));
+		final File directory = new File(args[0]);
+		final File[] files = directory.listFiles(new FileFilter() {
+			@Override
+			public boolean accept(final File file) {
+				return file.isFile() && file.getName().matches("\\d\\d\\"+EXTENSION);
+			}
+		});
+		if (files == null) {
+			throw new IOException("cannot list "+directory);
+		}
+		Arrays.sort(files);
+		final OutputStream out = new FileOutputStream(new File(directory, Constants.COURSE_INDEX));
+		try {
+			for (File file : files) {
+				final String name = file.getName();
+				out.write(index(directory, file, baked.contains(name.substring(0, name.length()-EXTENSION.length()))).getBytes("ISO-8859-1"));
+				out.write('\n');
+			}
+		} finally {
+			out.close();
+		}
+		System.out.println(files.length+" courses indexed");
+	}
+
+}
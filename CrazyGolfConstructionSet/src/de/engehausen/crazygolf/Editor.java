@@ -10,8 +10,10 @@ import java.awt.event.KeyEvent;
 import java.io.File;
 import java.io.IOException;
 
+import javax.swing.Box;
 import javax.swing.BoxLayout;
 import javax.swing.ButtonGroup;
+import javax.swing.JCheckBoxMenuItem;
 import javax.swing.JComboBox;
 import javax.swing.JFileChooser;
 import javax.swing.JFrame;
@@ -35,6 +37,7 @@ import de.engehausen.crazygolf.ui.Constants;
 import de.engehausen.crazygolf.ui.ElementPanel;
 import de.engehausen.crazygolf.ui.GamePanel;
 import de.engehausen.crazygolf.ui.HelpWindow;
+import de.engehausen.crazygolf.ui.ParView;
 import de.engehausen.crazygolf.ui.Splash;
 import de.engehausen.crazygolf.ui.TemplatePanel;
 import de.engehausen.mobile.crazygolf.Element;
@@ -51,6 +54,7 @@ public class Editor extends JFrame implements ActionListener, ElementModificatio
 	
 	private final JMenuItem newCourse, load, save, exit, help, about;
 	private final JMenu holeMenu;
+	private final JCheckBoxMenuItem cupDistances;
 	private final ModelIO io;
 	private JRadioButtonMenuItem firstHole;
 	private final GamePanel gamePanel;
@@ -60,6 +64,7 @@ public class Editor extends JFrame implements ActionListener, ElementModificatio
 	private String filename;
 	private JFileChooser fileChooser;
 	private final JComboBox par;
+	private final ParView parView;
 	private boolean dirty;
 	private HelpWindow helpWindow;
 
@@ -80,6 +85,9 @@ public class Editor extends JFrame implements ActionListener, ElementModificatio
 		exit.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_X, ActionEvent.CTRL_MASK));
 		holeMenu = new JMenu("Hole");
 		holeMenu.setMnemonic('o');
+		cupDistances = new JCheckBoxMenuItem("Distances to cup");
+		cupDistances.setMnemonic('d');
+		cupDistances.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_R, ActionEvent.CTRL_MASK));
 		help = new JMenuItem("Help...");
 		help.setMnemonic('p');
 		about = new JMenuItem("About...");
@@ -103,7 +111,13 @@ public class Editor extends JFrame implements ActionListener, ElementModificatio
 				"Par 7", "Par 8", "Par 9"
 				});
 		par.addActionListener(this);
-		game.add(par);
+		parView = new ParView(elements);
+		final JPanel parLine = new JPanel();
+		parLine.setLayout(new BoxLayout(parLine, BoxLayout.X_AXIS));
+		parLine.add(par);
+		parLine.add(Box.createHorizontalStrut(8));
+		parLine.add(parView);
+		game.add(parLine);
 		line.add(game);
 		line.add(elementPanel);
 		root.add(line);
@@ -139,6 +153,9 @@ public class Editor extends JFrame implements ActionListener, ElementModificatio
 		elementPanel.setModificationActionHandler(gamePanel);
 		gamePanel.addModificationListener(elementPanel);
 		gamePanel.addModificationListener(this);
+		gamePanel.addModificationListener(parView);
+		elementPanel.addModificationListener(parView);
+		parView.addCupDistanceListener(gamePanel);
 		gamePanel.addSelectionListener(elementPanel);
 		gamePanel.addZoomListener(elementPanel.getZoomListener());
 	}
@@ -179,6 +196,12 @@ public class Editor extends JFrame implements ActionListener, ElementModificatio
 		}
 		result.add(holeMenu);
 
+		final JMenu viewMenu = new JMenu("View");
+		viewMenu.setMnemonic('v');
+		cupDistances.addActionListener(this);
+		viewMenu.add(cupDistances);
+		result.add(viewMenu);
+
 		final JMenu helpMenu = new JMenu("Help");
 		helpMenu.setMnemonic('h');
 		help.addActionListener(this);
@@ -240,6 +263,8 @@ public class Editor extends JFrame implements ActionListener, ElementModificatio
 			if (hole != null) {
 				hole.setPar(par.getSelectedIndex()+1);
 			}
+		} else if (source == cupDistances) { //NOPMD
+			gamePanel.setShowCupDistances(cupDistances.isSelected());
 		} else if (source == about) { //NOPMD
 			JOptionPane.showMessageDialog(this, ABOUT_TEXT);
 		} else if (source == help) { //NOPMD
@@ -321,6 +346,7 @@ public class Editor extends JFrame implements ActionListener, ElementModificatio
 		gamePanel.setHole(h);
 		hole = h;
 		par.setSelectedIndex(hole.getPar()-1);
+		parView.setHole(h);
 	}
 	
 	private boolean confirm() {
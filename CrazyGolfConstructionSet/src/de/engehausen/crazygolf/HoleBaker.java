@@ -0,0 +1,99 @@
+package de.engehausen.crazygolf;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import javax.imageio.ImageIO;
+
+import de.engehausen.crazygolf.model.Elements;
+import de.engehausen.crazygolf.solver.Playfield;
+import de.engehausen.mobile.crazygolf.Constants;
+import de.engehausen.mobile.crazygolf.Element;
+import de.engehausen.mobile.crazygolf.ElementReader;
+import de.engehausen.mobile.crazygolf.model.Course;
+import de.engehausen.mobile.crazygolf.model.Hole;
+
+/**
+ * Paints the holes of courses in advance, so that the game reads the
+ * image of a hole instead of painting it from its elements. The images
+ * of a course <code>nn.crs</code> are written to the directory
+ * <code>nn</code> as <code>01.png</code> to <code>18.png</code>; the
+ * game uses them whenever they are there. Each course takes about
+ * 250 KB in the jar, so only the courses given are painted.
+ * <p>Run from the command line (or through the <code>bake</code> target
+ * of the build file) whenever a course or the element graphics change:
+ * <code>java de.engehausen.crazygolf.HoleBaker [resource directory] [course]...</code>,
+ * e.g. <code>HoleBaker res 00</code>; the images must be listed in the
+ * build properties of the game.</p>
+ */
+public class HoleBaker {
+
+	private final File directory;
+	private final Element[] elements;
+	private final Elements images;
+
+	/**
+	 * Creates the baker.
+	 * @param resources the resource directory of the game, must not be <code>null</code>.
+	 * @throws IOException in case of error
+	 */
+	public HoleBaker(final File resources) throws IOException {
+		directory = resources;
+		final InputStream in = new FileInputStream(new File(directory, Constants.DEFAULT_ELEMENTS));
+		try {
+			elements = ElementReader.getInstance().read(in);
+		} finally {
+			in.close();
+		}
+		images = new Elements(elements);
+	}
+
+	/**
+	 * Paints the holes of the given course.
+	 * @param course the name of the course file without extension, e.g. <code>00</code>
+	 * @return the number of holes painted
+	 * @throws IOException in case of error
+	 */
+	public int bake(final String course) throws IOException {
+		final Course loaded;
+		final InputStream in = new FileInputStream(new File(directory, course+".crs"));
+		try {
+			loaded = Course.load(elements, in);
+		} finally {
+			in.close();
+		}
+		final File target = new File(directory, course);
+		if (!target.isDirectory() && !target.mkdirs()) {
+			throw new IOException("cannot create "+target);
+		}
+		final Hole[] holes = loaded.getHoles();
+		int result = 0;
+		for (int i = 0; i < holes.length; i++) {
+			if (holes[i] != null) {
+				final BufferedImage image = Playfield.render(images, holes[i].getOperations());
+				ImageIO.write(AtlasBuilder.toPaletteImage(image), "png", new File(target, String.format("%02d.png", Integer.valueOf(i+1))));
+				result++;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Paints the holes of the given courses.
+	 * @param args the resource directory and the names of the course files without extension
+	 */
+	public static void main(final String[] args) throws IOException {
+		if (args.length < 2) {
+			System.err.println("usage: HoleBaker [resource directory] [course]...");
+			return;
+		}
+		final HoleBaker baker = new HoleBaker(new File(args[0]));
+		for (int i = 1; i < args.length; i++) {
+			System.out.println(args[i]+": "+baker.bake(args[i])+" holes painted");
+		}
+	}
+
+}
@@ -0,0 +1,16 @@
+package de.engehausen.crazygolf.event;
+
+import de.engehausen.crazygolf.solver.CupDistanceField;
+
+/**
+ * Listener for the distances to the cups of a hole.
+ */
+public interface CupDistanceListener {
+
+	/**
+	 * Triggered when the distances to the cups of the current hole were computed.
+	 * @param field the distances, or <code>null</code> if there are none.
+	 */
+	void cupDistancesComputed(CupDistanceField field);
+
+}
@@ -9,9 +9,10 @@ import java.io.IOException;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.imageio.ImageIO;
 
@@ -24,10 +25,10 @@ import de.engehausen.mobile.crazygolf.Element;
 public class Elements {
 
 	private final List<Element> elementsList;
-	private final IdentityHashMap<Element, BufferedImage> elementImages;
+	private final ConcurrentMap<Element, BufferedImage> elementImages; // elements have identity semantics
 	private final Map<String, Element[]> allModes;
 	private final Map<String, String> id2name;
-	private GraphicsConfiguration configuration;	
+	private volatile GraphicsConfiguration configuration;	
 	
 	/**
 	 * Creates the collection from the element list.
@@ -35,7 +36,7 @@ public class Elements {
 	 */
 	public Elements(final Element[] anElementList) {
 		elementsList = Collections.unmodifiableList(Arrays.asList(anElementList));
-		elementImages = new IdentityHashMap<Element, BufferedImage>(anElementList.length);
+		elementImages = new ConcurrentHashMap<Element, BufferedImage>(anElementList.length);
 		allModes = new HashMap<String, Element[]>(elementsList.size(), 1f);		
 		id2name = new HashMap<String, String>(elementsList.size(), 1f);		
 		for (Element e : elementsList) {
@@ -79,7 +80,8 @@ public class Elements {
 	}
 
 	/**
-	 * Returns the image for the given element.
+	 * Returns the image for the given element. The method may be
+	 * called from any thread.
 	 * @param e the element for which to return the image; must not be <code>null</code>.
 	 * @return the image for the given element, never <code>null</code>.
 	 */
@@ -88,7 +90,10 @@ public class Elements {
 		if (result == null) {
 			try {
 				result = createImage(e);
-				elementImages.put(e, result);
+				final BufferedImage other = elementImages.putIfAbsent(e, result);
+				if (other != null) {
+					result = other;
+				}
 			} catch (IOException ex) {
 				result = null;
 			}
@@ -0,0 +1,303 @@
+package de.engehausen.crazygolf.solver;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import de.engehausen.mobile.crazygolf.model.DistanceField;
+import de.engehausen.mobile.crazygolf.model.Rectangle;
+import de.engehausen.mobile.crazygolf.model.Simulation;
+import de.engehausen.mobile.crazygolf.model.Terrain;
+
+/**
+ * Geodesic distance of every position of a hole to the nearest cup.
+ * The field is flooded outward from the cups through all positions
+ * the ball fits into, so the distance is measured along the ways the
+ * ball can roll rather than straight through walls. Positions the
+ * flood does not reach can never get to a cup: start zones touching
+ * them and the regions they form are problems of the hole.
+ * The field does not change after creation and can be shared between
+ * threads; it can be written to a stream for use by other tools.
+ */
+public class CupDistanceField {
+
+	/** distance of positions the ball fits into but which do not lead to a cup */
+	public static final int UNREACHABLE = -1;
+	/** distance of positions the ball does not fit into */
+	public static final int BLOCKED = -2;
+
+	private static final int MAGIC = 0x43444631; // "CDF1"
+	private static final int DIAGONAL = 4; // chamfer distance of diagonally adjacent pixels, see DistanceField
+	private static final int MIN_TRAP = 16; // regions of fewer positions are ignored
+
+	private final int width, height;
+	private final int[] distances;
+	private final List<Rectangle> traps;
+
+	/**
+	 * Computes the field for the given terrain.
+	 * @param terrain the terrain of the hole, must not be <code>null</code>.
+	 * @param aWidth the width of the terrain
+	 * @param aHeight the height of the terrain
+	 * @param cups the cups of the hole, must not be <code>null</code>.
+	 */
+	public CupDistanceField(final Terrain terrain, final int aWidth, final int aHeight, final Rectangle[] cups) {
+		width = aWidth;
+		height = aHeight;
+		distances = new int[aWidth*aHeight];
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				distances[y*width+x] = terrain.getDistance(x, y) > Simulation.RADIUS ? UNREACHABLE : BLOCKED;
+			}
+		}
+		flood(cups);
+		traps = Collections.unmodifiableList(findTraps());
+	}
+
+	/**
+	 * Creates the field from precomputed distances.
+	 * @param aWidth the width of the field
+	 * @param aHeight the height of the field
+	 * @param someDistances the distances, row by row
+	 */
+	protected CupDistanceField(final int aWidth, final int aHeight, final int[] someDistances) { //NOPMD direct array storage is done intentionally
+		width = aWidth;
+		height = aHeight;
+		distances = someDistances;
+		traps = Collections.unmodifiableList(findTraps());
+	}
+
+	/**
+	 * Returns the width of the field.
+	 * @return the width of the field.
+	 */
+	public int getWidth() {
+		return width;
+	}
+
+	/**
+	 * Returns the height of the field.
+	 * @return the height of the field.
+	 */
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * Returns the distance to the nearest cup at the given position.
+	 * @param x x-position
+	 * @param y y-position
+	 * @return the distance in units of {@link DistanceField#UNIT} per pixel,
+	 * or {@link #UNREACHABLE} or {@link #BLOCKED}.
+	 */
+	public int getDistance(final int x, final int y) {
+		if (x < 0 || y < 0 || x >= width || y >= height) {
+			return BLOCKED;
+		}
+		return distances[y*width+x];
+	}
+
+	/**
+	 * Checks whether a cup can be reached from the given start zone.
+	 * @param zone the start zone, must not be <code>null</code>.
+	 * @return <code>true</code> if a cup can be reached from at least one position of the zone.
+	 */
+	public boolean isReachable(final Rectangle zone) {
+		for (int y = zone.y; y < zone.ey; y++) {
+			for (int x = zone.x; x < zone.ex; x++) {
+				if (getDistance(x, y) >= 0) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Checks whether the ball can be placed in the given start zone at a
+	 * position from which no cup can be reached.
+	 * @param zone the start zone, must not be <code>null</code>.
+	 * @return <code>true</code> if the zone touches a position not leading to a cup.
+	 */
+	public boolean isTrapping(final Rectangle zone) {
+		for (int y = zone.y; y < zone.ey; y++) {
+			for (int x = zone.x; x < zone.ex; x++) {
+				if (getDistance(x, y) == UNREACHABLE) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the regions the ball fits into but which do not lead to a cup.
+	 * @return the bounding boxes of the regions, never <code>null</code>.
+	 */
+	public List<Rectangle> getTraps() {
+		return traps;
+	}
+
+	/**
+	 * Writes the field to the given stream. The format is the
+	 * magic number <code>0x43444631</code>, the width and the height
+	 * followed by the distances row by row, all as big-endian integers.
+	 * @param out the stream to write to, must not be <code>null</code>.
+	 * @throws IOException in case of error
+	 */
+	public void write(final OutputStream out) throws IOException {
+		final DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+		data.writeInt(MAGIC);
+		data.writeInt(width);
+		data.writeInt(height);
+		for (int d : distances) {
+			data.writeInt(d);
+		}
+		data.flush();
+	}
+
+	/**
+	 * Reads a field written by {@link #write(OutputStream)}.
+	 * @param in the stream to read from, must not be <code>null</code>.
+	 * @return the field, never <code>null</code>.
+	 * @throws IOException in case of error
+	 */
+	public static CupDistanceField read(final InputStream in) throws IOException {
+		final DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+		if (data.readInt() != MAGIC) {
+			throw new IOException("not a cup distance field");
+		}
+		final int w = data.readInt();
+		final int h = data.readInt();
+		final int[] d = new int[w*h];
+		for (int i = 0; i < d.length; i++) {
+			d[i] = data.readInt();
+		}
+		return new CupDistanceField(w, h, d);
+	}
+
+	/**
+	 * Floods the field from the cups using chamfer distances. As the
+	 * distances of neighbours differ by at most {@link #DIAGONAL}, the
+	 * positions waiting to be expanded are kept in a ring of buckets
+	 * by distance, which avoids a priority queue.
+	 * @param cups the cups of the hole
+	 */
+	private void flood(final Rectangle[] cups) {
+		final int[][] ring = new int[DIAGONAL+1][];
+		final int[] counts = new int[ring.length];
+		for (int i = ring.length; i-->0; ) {
+			ring[i] = new int[256];
+		}
+		int pending = 0;
+		for (Rectangle cup : cups) {
+			for (int y = Math.max(0, cup.y); y < Math.min(height, cup.ey); y++) {
+				for (int x = Math.max(0, cup.x); x < Math.min(width, cup.ex); x++) {
+					final int i = y*width+x;
+					if (distances[i] != 0) {
+						distances[i] = 0;
+						ring[0] = add(ring[0], counts[0]++, i);
+						pending++;
+					}
+				}
+			}
+		}
+		for (int current = 0; pending > 0; current++) {
+			final int b = current%ring.length;
+			final int[] bucket = ring[b];
+			final int count = counts[b];
+			for (int k = 0; k < count; k++) {
+				final int i = bucket[k];
+				if (distances[i] != current) {
+					continue; // reached on a shorter way meanwhile
+				}
+				final int x = i%width, y = i/width;
+				for (int dy = -1; dy <= 1; dy++) {
+					for (int dx = -1; dx <= 1; dx++) {
+						final int nx = x+dx, ny = y+dy;
+						if ((dx != 0 || dy != 0) && nx >= 0 && ny >= 0 && nx < width && ny < height) {
+							final int n = ny*width+nx;
+							final int d = current+(dx == 0 || dy == 0 ? DistanceField.UNIT : DIAGONAL);
+							if (distances[n] == UNREACHABLE || distances[n] > d) {
+								distances[n] = d;
+								final int nb = d%ring.length;
+								ring[nb] = add(ring[nb], counts[nb]++, n);
+								pending++;
+							}
+						}
+					}
+				}
+			}
+			pending -= count;
+			counts[b] = 0;
+		}
+	}
+
+	/**
+	 * Finds the connected regions of unreachable positions.
+	 * @return the bounding boxes of the regions
+	 */
+	private List<Rectangle> findTraps() {
+		final List<Rectangle> result = new ArrayList<Rectangle>();
+		final boolean[] seen = new boolean[distances.length];
+		int[] stack = new int[256];
+		for (int start = 0; start < distances.length; start++) {
+			if (distances[start] == UNREACHABLE && !seen[start]) {
+				int size = 0, top = 0;
+				int minX = width, minY = height, maxX = -1, maxY = -1;
+				seen[start] = true;
+				stack = add(stack, top++, start);
+				while (top > 0) {
+					final int i = stack[--top];
+					final int x = i%width, y = i/width;
+					size++;
+					minX = Math.min(minX, x);
+					minY = Math.min(minY, y);
+					maxX = Math.max(maxX, x);
+					maxY = Math.max(maxY, y);
+					for (int dy = -1; dy <= 1; dy++) {
+						for (int dx = -1; dx <= 1; dx++) {
+							final int nx = x+dx, ny = y+dy;
+							if (nx >= 0 && ny >= 0 && nx < width && ny < height) {
+								final int n = ny*width+nx;
+								if (distances[n] == UNREACHABLE && !seen[n]) {
+									seen[n] = true;
+									stack = add(stack, top++, n);
+								}
+							}
+						}
+					}
+				}
+				if (size >= MIN_TRAP) {
+					result.add(new Rectangle(0, minX, minY, 0, 0, maxX-minX+1, maxY-minY+1));
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Stores a value in an array, growing the array if needed.
+	 * @param array the array
+	 * @param index the index to store the value at
+	 * @param value the value
+	 * @return the array holding the value
+	 */
+	private static int[] add(final int[] array, final int index, final int value) {
+		int[] result = array;
+		if (index == result.length) {
+			result = new int[2*index];
+			System.arraycopy(array, 0, result, 0, index);
+		}
+		result[index] = value;
+		return result;
+	}
+
+}
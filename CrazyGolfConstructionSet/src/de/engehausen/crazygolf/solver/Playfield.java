@@ -0,0 +1,184 @@
+package de.engehausen.crazygolf.solver;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.imageio.ImageIO;
+
+import de.engehausen.crazygolf.Editor;
+import de.engehausen.crazygolf.model.Element;
+import de.engehausen.crazygolf.model.Elements;
+import de.engehausen.crazygolf.model.Hole;
+import de.engehausen.mobile.crazygolf.Constants;
+import de.engehausen.mobile.crazygolf.model.ElementOp;
+import de.engehausen.mobile.crazygolf.model.HoleTerrain;
+import de.engehausen.mobile.crazygolf.model.Rectangle;
+
+/**
+ * A hole of the editor as the game sees it: the hole is rendered
+ * exactly like the game renders it and turned into the game's
+ * hole and terrain, so that shots can be simulated on it.
+ * The playfield does not change after creation and can be shared
+ * between threads; the distances to the cups are computed on first use.
+ */
+public class Playfield {
+
+	/** the width of the screen the courses are made for */
+	public static final int WIDTH = 320;
+	/** the height of the screen the courses are made for */
+	public static final int HEIGHT = 480;
+
+	private final de.engehausen.mobile.crazygolf.model.Hole hole;
+	private final HoleTerrain terrain;
+	private CupDistanceField cupDistances;
+
+	/**
+	 * Creates the playfield for the given hole.
+	 * @param elements all known elements, must not be <code>null</code>.
+	 * @param colors the colors that do not cause a collision, must not be <code>null</code>.
+	 * @param editorHole the hole to create the playfield for, must not be <code>null</code>.
+	 */
+	public Playfield(final Elements elements, final int[] colors, final Hole editorHole) {
+		this(elements, colors, editorHole.getPar(), getElementOps(editorHole));
+	}
+
+	/**
+	 * Creates the playfield for the given elements of a hole. The
+	 * elements are rendered from their templates only, so that the
+	 * playfield can be created on any thread while the editor keeps
+	 * modifying the hole.
+	 * @param elements all known elements, must not be <code>null</code>.
+	 * @param colors the colors that do not cause a collision, must not be <code>null</code>.
+	 * @param par the par value of the hole
+	 * @param ops the elements of the hole, bottom layer first, must not be <code>null</code>.
+	 * @see #getElementOps(Hole)
+	 */
+	public Playfield(final Elements elements, final int[] colors, final int par, final ElementOp[] ops) {
+		final List<de.engehausen.mobile.crazygolf.Element> all = elements.getAllElements();
+		final BufferedImage image = render(elements, ops);
+		hole = new de.engehausen.mobile.crazygolf.model.Hole(all.toArray(new de.engehausen.mobile.crazygolf.Element[all.size()]), par, ops);
+		terrain = new HoleTerrain(colors, WIDTH, HEIGHT);
+		final int[] row = new int[WIDTH];
+		for (int y = 0; y < HEIGHT; y++) {
+			image.getRGB(0, y, WIDTH, 1, row, 0, WIDTH);
+			terrain.setRow(y, row);
+		}
+		terrain.compute(hole);
+	}
+
+	/**
+	 * Renders the given elements of a hole as the game does.
+	 * @param elements all known elements, must not be <code>null</code>.
+	 * @param ops the elements of the hole, bottom layer first, must not be <code>null</code>.
+	 * @return the image of the hole, never <code>null</code>.
+	 */
+	public static BufferedImage render(final Elements elements, final ElementOp[] ops) {
+		final BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_ARGB);
+		final Graphics2D g = image.createGraphics();
+		try {
+			g.setColor(new Color(Constants.LAWN_GREEN));
+			g.fillRect(0, 0, WIDTH, HEIGHT);
+			for (ElementOp op : ops) {
+				final Element e = createElement(elements, op);
+				g.translate(op.x, op.y);
+				e.paint(g);
+				g.translate(-op.x, -op.y);
+			}
+		} finally {
+			g.dispose();
+		}
+		return image;
+	}
+
+	/**
+	 * Returns the elements of the hole as the game stores them. This
+	 * is a snapshot which does not change when the hole is modified.
+	 * @param editorHole the hole, must not be <code>null</code>.
+	 * @return the elements of the hole, bottom layer first.
+	 */
+	public static ElementOp[] getElementOps(final Hole editorHole) {
+		final List<ElementOp> ops = new ArrayList<ElementOp>();
+		for (Element e : editorHole) {
+			ops.add(new ElementOp(e.getID(), e.getX(), e.getY(), e.getFlipFlags(), e.getVectorFlipFlags()));
+		}
+		return ops.toArray(new ElementOp[ops.size()]);
+	}
+
+	/**
+	 * Creates an editor element for the given element of the game.
+	 * @param elements all known elements
+	 * @param op the element of the game
+	 * @return the editor element
+	 */
+	private static Element createElement(final Elements elements, final ElementOp op) {
+		final de.engehausen.mobile.crazygolf.Element[] templates = elements.getAllModes(elements.getName(op.id));
+		final Element result = new Element(elements, templates);
+		result.setFlipFlags(op.flags);
+		for (int i = templates.length-1; i>=0; i--) {
+			if (templates[i] != null && templates[i].getID() == op.id) {
+				result.setMode(i);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Reads the colors that do not cause a collision.
+	 * @return the colors that do not cause a collision.
+	 * @throws IOException in case of error
+	 */
+	public static int[] readNonCollisionColors() throws IOException {
+		final BufferedImage img = ImageIO.read(Editor.class.getResourceAsStream("/colors.png"));
+		final int s = img.getWidth();
+		return img.getRGB(0, 0, s, 1, new int[s], 0, s);
+	}
+
+	/**
+	 * Returns the hole as the game sees it.
+	 * @return the hole as the game sees it.
+	 */
+	public de.engehausen.mobile.crazygolf.model.Hole getHole() {
+		return hole;
+	}
+
+	/**
+	 * Returns the terrain of the hole.
+	 * @return the terrain of the hole.
+	 */
+	public HoleTerrain getTerrain() {
+		return terrain;
+	}
+
+	/**
+	 * Returns the distances to the cups of the hole. The field is
+	 * computed once and then cached.
+	 * @return the distances to the cups of the hole.
+	 */
+	public synchronized CupDistanceField getCupDistances() {
+		if (cupDistances == null) {
+			cupDistances = new CupDistanceField(terrain, WIDTH, HEIGHT, getCups());
+		}
+		return cupDistances;
+	}
+
+	/**
+	 * Returns the start zones of the hole.
+	 * @return the start zones of the hole.
+	 */
+	public Rectangle[] getStartZones() {
+		return hole.getStartZones();
+	}
+
+	/**
+	 * Returns the cups of the hole.
+	 * @return the cups of the hole.
+	 */
+	public Rectangle[] getCups() {
+		return hole.getHoles();
+	}
+
+}
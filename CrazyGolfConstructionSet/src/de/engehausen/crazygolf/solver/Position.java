@@ -0,0 +1,87 @@
+package de.engehausen.crazygolf.solver;
+
+/**
+ * A position the ball came to rest at, together with the shots
+ * that led there.
+ */
+public class Position {
+
+	private final int x, y;
+	private final Position previous;
+	private final Shot shot;
+	private final boolean holed;
+
+	/**
+	 * Creates a start position.
+	 * @param xVal the x-position (fixed-point)
+	 * @param yVal the y-position (fixed-point)
+	 */
+	public Position(final int xVal, final int yVal) {
+		this(xVal, yVal, null, null, false);
+	}
+
+	/**
+	 * Creates the position reached by a shot.
+	 * @param xVal the x-position (fixed-point)
+	 * @param yVal the y-position (fixed-point)
+	 * @param from the position the shot was played from, may be <code>null</code> for a start position.
+	 * @param aShot the shot, may be <code>null</code> for a start position.
+	 * @param isHoled <code>true</code> if the ball is in a cup.
+	 */
+	public Position(final int xVal, final int yVal, final Position from, final Shot aShot, final boolean isHoled) {
+		x = xVal;
+		y = yVal;
+		previous = from;
+		shot = aShot;
+		holed = isHoled;
+	}
+
+	/**
+	 * Returns the x-position of the ball.
+	 * @return the x-position of the ball (fixed-point)
+	 */
+	public int getX() {
+		return x;
+	}
+
+	/**
+	 * Returns the y-position of the ball.
+	 * @return the y-position of the ball (fixed-point)
+	 */
+	public int getY() {
+		return y;
+	}
+
+	/**
+	 * Returns the position the shot leading here was played from.
+	 * @return the previous position, or <code>null</code> for a start position.
+	 */
+	public Position getPrevious() {
+		return previous;
+	}
+
+	/**
+	 * Returns the shot leading here.
+	 * @return the shot, or <code>null</code> for a start position.
+	 */
+	public Shot getShot() {
+		return shot;
+	}
+
+	/**
+	 * Returns whether the ball is in a cup.
+	 * @return <code>true</code> if the ball is in a cup, <code>false</code> otherwise.
+	 */
+	public boolean isHoled() {
+		return holed;
+	}
+
+	/**
+	 * Returns the number of shots played up to this position.
+	 * @return the number of shots played up to this position.
+	 */
+	public int getStrokes() {
+		return previous == null ? 0 : previous.getStrokes()+1;
+	}
+
+}
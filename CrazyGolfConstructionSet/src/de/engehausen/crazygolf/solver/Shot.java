@@ -0,0 +1,85 @@
+package de.engehausen.crazygolf.solver;
+
+import de.engehausen.mobile.crazygolf.model.Fixed;
+import de.engehausen.mobile.crazygolf.model.Recording;
+import de.engehausen.mobile.crazygolf.model.Simulation;
+
+/**
+ * A swipe of the player. The swipe is described by its direction,
+ * its length (from the start of the swipe up to the ball) and the
+ * time it took; the speed of the ball is computed exactly as the game
+ * computes it, including the quantization applied for recording.
+ */
+public class Shot {
+
+	private final int angle;
+	private final int length;
+	private final long time;
+	private final int speedX, speedY;
+
+	/**
+	 * Creates the shot.
+	 * @param anAngle the direction of the swipe in degrees (0 is to the right, 90 is down)
+	 * @param aLength the length of the swipe up to the ball in pixels
+	 * @param aTime the duration of the swipe in milliseconds
+	 */
+	public Shot(final int anAngle, final int aLength, final long aTime) {
+		angle = anAngle;
+		length = aLength;
+		time = aTime;
+		final double power = Simulation.getSwipePower(aTime);
+		final double rad = Math.toRadians(anAngle);
+		speedX = Recording.quantize(Fixed.toFixed(Math.cos(rad)*aLength*power));
+		speedY = Recording.quantize(Fixed.toFixed(Math.sin(rad)*aLength*power));
+	}
+
+	/**
+	 * Returns the direction of the swipe.
+	 * @return the direction of the swipe in degrees.
+	 */
+	public int getAngle() {
+		return angle;
+	}
+
+	/**
+	 * Returns the length of the swipe.
+	 * @return the length of the swipe in pixels.
+	 */
+	public int getLength() {
+		return length;
+	}
+
+	/**
+	 * Returns the duration of the swipe.
+	 * @return the duration of the swipe in milliseconds.
+	 */
+	public long getTime() {
+		return time;
+	}
+
+	/**
+	 * Returns the x component of the speed the shot gives to the ball.
+	 * @return the x component of the speed (fixed-point)
+	 */
+	public int getSpeedX() {
+		return speedX;
+	}
+
+	/**
+	 * Returns the y component of the speed the shot gives to the ball.
+	 * @return the y component of the speed (fixed-point)
+	 */
+	public int getSpeedY() {
+		return speedY;
+	}
+
+	// non-javadoc: see superclass
+	public String toString() {
+		final StringBuilder sb = new StringBuilder(32);
+		sb.append(angle).append("deg ")
+		  .append(length).append("px/")
+		  .append(time).append("ms");
+		return sb.toString();
+	}
+
+}
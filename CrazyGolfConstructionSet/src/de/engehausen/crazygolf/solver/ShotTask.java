@@ -0,0 +1,100 @@
+package de.engehausen.crazygolf.solver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RecursiveTask;
+
+import de.engehausen.mobile.crazygolf.model.Simulation;
+import de.engehausen.mobile.crazygolf.model.Terrain;
+
+/**
+ * Plays all shots from a list of positions. The task splits the
+ * combinations of positions and shots in halves until they are
+ * small enough to be simulated directly; the results are returned
+ * in the order of the combinations.
+ */
+public class ShotTask extends RecursiveTask<List<Position>> {
+
+	private static final long serialVersionUID = 1L;
+	private static final int THRESHOLD = 64; // number of shots simulated directly
+	private static final int MAX_STEPS = 3000; // balls moving longer are considered stuck
+
+	private final ShotTask root;
+	private final Terrain terrain;
+	private final List<Position> positions;
+	private final Shot[] shots;
+	private final int from, to;
+
+	/**
+	 * Creates the task for all shots from all given positions.
+	 * @param aTerrain the terrain to play on, must not be <code>null</code>.
+	 * @param somePositions the positions to play from, must not be <code>null</code>.
+	 * @param someShots the shots to play, must not be <code>null</code>.
+	 */
+	public ShotTask(final Terrain aTerrain, final List<Position> somePositions, final Shot[] someShots) { //NOPMD direct array storage is done intentionally
+		this(null, aTerrain, somePositions, someShots, 0, somePositions.size()*someShots.length);
+	}
+
+	/**
+	 * Creates the task for a range of position/shot combinations.
+	 * @param rootTask the task all combinations are played for, or <code>null</code> if this is the task
+	 * @param aTerrain the terrain to play on
+	 * @param somePositions the positions to play from
+	 * @param someShots the shots to play
+	 * @param start the first combination (inclusive)
+	 * @param end the last combination (exclusive)
+	 */
+	protected ShotTask(final ShotTask rootTask, final Terrain aTerrain, final List<Position> somePositions, final Shot[] someShots, final int start, final int end) { //NOPMD direct array storage is done intentionally
+		root = rootTask == null ? this : rootTask;
+		terrain = aTerrain;
+		positions = somePositions;
+		shots = someShots;
+		from = start;
+		to = end;
+	}
+
+	@Override
+	protected List<Position> compute() {
+		if (to-from <= THRESHOLD) {
+			final List<Position> result = new ArrayList<Position>(to-from);
+			final Simulation simulation = new Simulation();
+			// stop early if all combinations are cancelled; the result is not used then
+			for (int i = from; i < to && !root.isCancelled(); i++) {
+				final Position p = play(simulation, positions.get(i/shots.length), shots[i%shots.length]);
+				if (p != null) {
+					result.add(p);
+				}
+			}
+			return result;
+		} else {
+			final int middle = (from+to)>>>1;
+			final ShotTask left = new ShotTask(root, terrain, positions, shots, from, middle);
+			left.fork();
+			final List<Position> result = new ShotTask(root, terrain, positions, shots, middle, to).compute();
+			final List<Position> first = left.join();
+			first.addAll(result);
+			return first;
+		}
+	}
+
+	/**
+	 * Plays a single shot.
+	 * @param simulation the simulation to use
+	 * @param position the position to play from
+	 * @param shot the shot to play
+	 * @return the position the ball came to rest at, or <code>null</code> if the ball did not stop.
+	 */
+	protected Position play(final Simulation simulation, final Position position, final Shot shot) {
+		simulation.setExactPosition(position.getX(), position.getY());
+		simulation.addSpeed(shot.getSpeedX(), shot.getSpeedY());
+		for (int i = MAX_STEPS; i-->0 && simulation.isMoving(); ) {
+			simulation.step(terrain);
+		}
+		if (simulation.isMoving()) {
+			return null;
+		} else {
+			return new Position(simulation.getX(), simulation.getY(), position, shot, simulation.isHoled());
+		}
+	}
+
+}
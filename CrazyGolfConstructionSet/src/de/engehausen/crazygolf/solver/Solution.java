@@ -0,0 +1,75 @@
+package de.engehausen.crazygolf.solver;
+
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+
+import de.engehausen.mobile.crazygolf.model.Rectangle;
+
+/**
+ * The best way found to play a hole from one of its start zones.
+ */
+public class Solution {
+
+	private final Rectangle start;
+	private final List<Shot> shots;
+
+	/**
+	 * Creates the solution.
+	 * @param startZone the start zone, must not be <code>null</code>.
+	 * @param end the position in the cup, or <code>null</code> if no way into a cup was found.
+	 */
+	public Solution(final Rectangle startZone, final Position end) {
+		start = startZone;
+		final LinkedList<Shot> temp = new LinkedList<Shot>();
+		for (Position p = end; p != null && p.getShot() != null; p = p.getPrevious()) {
+			temp.addFirst(p.getShot());
+		}
+		shots = Collections.unmodifiableList(temp);
+	}
+
+	/**
+	 * Returns the start zone.
+	 * @return the start zone.
+	 */
+	public Rectangle getStartZone() {
+		return start;
+	}
+
+	/**
+	 * Indicates whether a way into a cup was found.
+	 * @return <code>true</code> if the hole can be played from the start zone.
+	 */
+	public boolean isSolved() {
+		return !shots.isEmpty();
+	}
+
+	/**
+	 * Returns the number of strokes needed.
+	 * @return the number of strokes, zero if no way into a cup was found.
+	 */
+	public int getStrokes() {
+		return shots.size();
+	}
+
+	/**
+	 * Returns the shots to play, in order.
+	 * @return the shots to play, never <code>null</code>.
+	 */
+	public List<Shot> getShots() {
+		return shots;
+	}
+
+	// non-javadoc: see superclass
+	public String toString() {
+		final StringBuilder sb = new StringBuilder(128);
+		sb.append("start ").append(start.cx).append(',').append(start.cy).append(": ");
+		if (isSolved()) {
+			sb.append(getStrokes()).append(" stroke(s) - ").append(shots);
+		} else {
+			sb.append("no way into a cup found");
+		}
+		return sb.toString();
+	}
+
+}
@@ -0,0 +1,258 @@
+package de.engehausen.crazygolf.solver;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+
+import de.engehausen.crazygolf.model.Course;
+import de.engehausen.crazygolf.model.Elements;
+import de.engehausen.crazygolf.model.Hole;
+import de.engehausen.crazygolf.model.ModelIO;
+import de.engehausen.mobile.crazygolf.Element;
+import de.engehausen.mobile.crazygolf.ElementReader;
+import de.engehausen.mobile.crazygolf.model.Fixed;
+import de.engehausen.mobile.crazygolf.model.Rectangle;
+
+/**
+ * Finds the fewest strokes needed to play a hole. The solver plays
+ * a fixed set of swipes (directions and strengths) from the start zone,
+ * then again from every position the ball came to rest at, and so on,
+ * until the ball drops into a cup. All shots of a stroke are simulated
+ * in parallel on a fork/join pool. The distances to the cups guide the
+ * search: start zones without a way to a cup are not played at all, and
+ * the positions closest to a cup along the way are played on.
+ * <p>Run from the command line to check all holes of a course:
+ * <code>java de.engehausen.crazygolf.solver.Solver [course.crs] [max. strokes] [export directory]</code>;
+ * if a directory is given, the distances to the cups of each hole are
+ * written to it (see {@link CupDistanceField#write(OutputStream)}).</p>
+ */
+public class Solver {
+
+	/** the number of strokes tried by default */
+	public static final int DEFAULT_MAX_STROKES = 5;
+
+	private static final int SWIPE_LENGTH = 120; // pixels
+	private static final int ANGLE_STEP = 3; // degrees
+	private static final int[] SPEEDS = { 2, 3, 4, 5, 6, 8, 10, 12, 14, 17, 20, 24, 28, 33, 40 }; // pixels per step
+	private static final int FRONTIER = 64; // positions played from per stroke at most
+	private static final int GRID = Fixed.SHIFT+1; // rest positions closer than two pixels count as the same
+	private static final int NEAR = 3; // pixels searched around a rest position for its distance to a cup
+
+	private final ForkJoinPool pool;
+	private final Shot[] shots;
+	private final int maxStrokes;
+	private final SolverListener listener;
+
+	/**
+	 * Creates the solver.
+	 * @param aPool the pool to simulate the shots on, must not be <code>null</code>.
+	 * @param strokes the maximum number of strokes to try
+	 */
+	public Solver(final ForkJoinPool aPool, final int strokes) {
+		this(aPool, strokes, null);
+	}
+
+	/**
+	 * Creates the solver reporting its progress to the given listener.
+	 * @param aPool the pool to simulate the shots on, must not be <code>null</code>.
+	 * @param strokes the maximum number of strokes to try
+	 * @param aListener the listener to report the progress to, may be <code>null</code>.
+	 */
+	public Solver(final ForkJoinPool aPool, final int strokes, final SolverListener aListener) {
+		pool = aPool;
+		maxStrokes = strokes;
+		listener = aListener;
+		final List<Shot> temp = new ArrayList<Shot>();
+		for (int angle = 0; angle < 360; angle += ANGLE_STEP) {
+			for (int speed : SPEEDS) {
+				// the game computes the speed from the length and the duration of the swipe
+				temp.add(new Shot(angle, SWIPE_LENGTH, 24L*SWIPE_LENGTH/speed));
+			}
+		}
+		shots = temp.toArray(new Shot[temp.size()]);
+	}
+
+	/**
+	 * Finds the best solutions for all start zones of the given hole.
+	 * @param playfield the hole to solve, must not be <code>null</code>.
+	 * @return the solutions, one per start zone.
+	 * @throws InterruptedException if the calling thread was interrupted
+	 */
+	public Solution[] solve(final Playfield playfield) throws InterruptedException {
+		final Rectangle[] zones = playfield.getStartZones();
+		final Solution[] result = new Solution[zones.length];
+		for (int i = 0; i < zones.length; i++) {
+			result[i] = solve(playfield, zones[i]);
+		}
+		return result;
+	}
+
+	/**
+	 * Finds the best solution for the given start zone. The ball is
+	 * placed in the center of the start zone. Nothing is played if
+	 * there is no way from the start zone to a cup.
+	 * @param playfield the hole to solve, must not be <code>null</code>.
+	 * @param zone the start zone, must not be <code>null</code>.
+	 * @return the solution, never <code>null</code>.
+	 * @throws InterruptedException if the calling thread was interrupted
+	 */
+	public Solution solve(final Playfield playfield, final Rectangle zone) throws InterruptedException {
+		final CupDistanceField distances = playfield.getCupDistances();
+		if (!distances.isReachable(zone)) {
+			return new Solution(zone, null);
+		}
+		final Set<Integer> visited = new HashSet<Integer>();
+		List<Position> frontier = new ArrayList<Position>(1);
+		final Position start = new Position(Fixed.toFixed(zone.cx), Fixed.toFixed(zone.cy));
+		frontier.add(start);
+		visited.add(key(start));
+		for (int stroke = 0; stroke < maxStrokes && !frontier.isEmpty(); stroke++) {
+			final List<Position> reached = play(new ShotTask(playfield.getTerrain(), frontier, shots));
+			final List<Position> next = new ArrayList<Position>(reached.size());
+			for (Position p : reached) {
+				if (p.isHoled()) {
+					return new Solution(zone, p);
+				}
+				if (visited.add(key(p))) {
+					next.add(p);
+				}
+			}
+			frontier = select(next, distances);
+			if (listener != null) {
+				listener.strokePlayed(zone, stroke+1);
+			}
+		}
+		return new Solution(zone, null);
+	}
+
+	/**
+	 * Plays the shots of a stroke on the pool and waits for the result.
+	 * If the calling thread is interrupted while waiting, the shots not
+	 * yet played are cancelled.
+	 * @param task the shots to play
+	 * @return the positions reached
+	 * @throws InterruptedException if the calling thread was interrupted
+	 */
+	private List<Position> play(final ShotTask task) throws InterruptedException {
+		pool.execute(task);
+		try {
+			return task.get();
+		} catch (InterruptedException e) {
+			task.cancel(true);
+			throw e;
+		} catch (ExecutionException e) {
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+
+	/**
+	 * Selects the positions to play the next stroke from. These are
+	 * the positions closest to a cup along the ways the ball can roll;
+	 * positions without a way to a cup are dropped.
+	 * @param positions the positions reached
+	 * @param distances the distances to the cups of the hole
+	 * @return the positions to play from
+	 */
+	protected List<Position> select(final List<Position> positions, final CupDistanceField distances) {
+		final long[] keys = new long[positions.size()];
+		int count = 0;
+		for (int i = 0; i < keys.length; i++) {
+			final int d = distance(positions.get(i), distances);
+			if (d != CupDistanceField.UNREACHABLE) {
+				keys[count++] = ((long) d<<32)|i;
+			}
+		}
+		Arrays.sort(keys, 0, count);
+		final int max = Math.min(count, FRONTIER);
+		final List<Position> result = new ArrayList<Position>(max);
+		for (int i = 0; i < max; i++) {
+			result.add(positions.get((int) keys[i]));
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the distance of the position to the nearest cup. A ball
+	 * resting at a wall may be too close to it for the field, so the
+	 * nearest position around it the field knows is used.
+	 * @param p the position
+	 * @param distances the distances to the cups of the hole
+	 * @return the distance, {@link CupDistanceField#UNREACHABLE} if there is
+	 * no way to a cup or {@link Integer#MAX_VALUE} if the distance is unknown.
+	 */
+	private int distance(final Position p, final CupDistanceField distances) {
+		final int x = Fixed.toInt(p.getX()), y = Fixed.toInt(p.getY());
+		int result = distances.getDistance(x, y);
+		if (result == CupDistanceField.BLOCKED) {
+			result = Integer.MAX_VALUE;
+			for (int dy = -NEAR; dy <= NEAR; dy++) {
+				for (int dx = -NEAR; dx <= NEAR; dx++) {
+					final int d = distances.getDistance(x+dx, y+dy);
+					if (d >= 0) {
+						result = Math.min(result, d);
+					}
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the key identifying positions that are (nearly) the same.
+	 * @param p the position
+	 * @return the key
+	 */
+	private Integer key(final Position p) {
+		return Integer.valueOf(((p.getX()>>GRID)<<16)|((p.getY()>>GRID)&0xffff));
+	}
+
+	/**
+	 * Solves all holes of a course and prints the results.
+	 * @param args the course file, optionally the maximum number of strokes
+	 * and the directory to export the distances to the cups to
+	 */
+	public static void main(final String[] args) throws Throwable {
+		if (args.length < 1) {
+			System.err.println("usage: Solver [course.crs] [max. strokes] [export directory]");
+			return;
+		}
+		final ElementReader rdr = ElementReader.getInstance();
+		final Element[] arr = rdr.read(ElementReader.class.getResourceAsStream(de.engehausen.mobile.crazygolf.Constants.DEFAULT_ELEMENTS));
+		final Elements elements = new Elements(arr);
+		final Course course = new ModelIO(elements).load(new File(args[0]));
+		final int[] colors = Playfield.readNonCollisionColors();
+		final Solver solver = new Solver(new ForkJoinPool(), args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_MAX_STROKES);
+		final File export = args.length > 2 ? new File(args[2]) : null;
+		System.out.println(course.getName());
+		int number = 1;
+		for (Hole hole : course.getHoles()) {
+			if (hole.iterator().hasNext()) {
+				final Playfield playfield = new Playfield(elements, colors, hole);
+				System.out.println("hole "+number+" (par "+hole.getPar()+")");
+				for (Solution s : solver.solve(playfield)) {
+					System.out.println("  "+s);
+				}
+				for (Rectangle trap : playfield.getCupDistances().getTraps()) {
+					System.out.println("  region "+trap.x+","+trap.y+"-"+trap.ex+","+trap.ey+" does not lead to a cup");
+				}
+				if (export != null) {
+					final OutputStream out = new FileOutputStream(new File(export, String.format("hole%02d.cdf", Integer.valueOf(number))));
+					try {
+						playfield.getCupDistances().write(out);
+					} finally {
+						out.close();
+					}
+				}
+			}
+			number++;
+		}
+	}
+
+}
@@ -0,0 +1,19 @@
+package de.engehausen.crazygolf.solver;
+
+import de.engehausen.mobile.crazygolf.model.Rectangle;
+
+/**
+ * Listener for the progress of the solver.
+ */
+public interface SolverListener {
+
+	/**
+	 * Triggered when all shots of a stroke were played without
+	 * the ball dropping into a cup. The listener is called on the
+	 * thread running the solver.
+	 * @param zone the start zone played from, never <code>null</code>.
+	 * @param strokes the number of strokes tried so far
+	 */
+	void strokePlayed(Rectangle zone, int strokes);
+
+}
@@ -18,6 +18,7 @@ import java.util.List;
 
 import javax.swing.JPanel;
 
+import de.engehausen.crazygolf.event.CupDistanceListener;
 import de.engehausen.crazygolf.event.ElementModificationListener;
 import de.engehausen.crazygolf.event.ElementSelectionListener;
 import de.engehausen.crazygolf.event.ModificationActionHandler;
@@ -26,11 +27,12 @@ import de.engehausen.crazygolf.event.VectorDisplayListener;
 import de.engehausen.crazygolf.event.ZoomListener;
 import de.engehausen.crazygolf.model.Element;
 import de.engehausen.crazygolf.model.Hole;
+import de.engehausen.crazygolf.solver.CupDistanceField;
 
 /**
  * Shows the currently select hole of a course.
  */
-public class GamePanel extends JPanel implements ElementModificationListener, MouseListener, MouseMotionListener, PlaceActionHandler, KeyListener, ModificationActionHandler, VectorDisplayListener {
+public class GamePanel extends JPanel implements ElementModificationListener, MouseListener, MouseMotionListener, PlaceActionHandler, KeyListener, ModificationActionHandler, VectorDisplayListener, CupDistanceListener {
 
 	private static final long serialVersionUID = 1L;
 	protected static final Dimension GAME_DIMENSIONS = new Dimension(320, 480);
@@ -38,11 +40,16 @@ public class GamePanel extends JPanel implements ElementModificationListener, Mo
 	private final static Stroke SELECTION_STROKE = new BasicStroke(1f, BasicStroke.CAP_SQUARE, BasicStroke.JOIN_MITER, 10.0f, new float[] {1f, 2f, 1f, 3f}, 0f); 
 	private final static int ZOOM_WIDTH = ElementView.DIMENSION.width/2;
 	private final static int ZOOM_HEIGHT = ElementView.DIMENSION.height/2;
+	private final static int DISTANCE_ALPHA = 0x70000000;
+	private final static int TRAP_COLOR = 0xb0ff0000;
 	
 	private Hole hole;
 	private BufferedImage buffer;
 	private Element placingElement;
 	private boolean showVectors;
+	private boolean showDistances;
+	private CupDistanceField cupDistances;
+	private BufferedImage distanceImage;
 	private int selx1, sely1, selx2, sely2;
 	private final List<Element> selection;
 	private final List<ElementModificationListener> modificationListeners;
@@ -125,6 +132,12 @@ public class GamePanel extends JPanel implements ElementModificationListener, Mo
 			repaintBuffer();
 		}
 		g.drawImage(buffer, 0, 0, null);
+		if (showDistances && cupDistances != null) {
+			if (distanceImage == null) {
+				distanceImage = createDistanceImage(cupDistances);
+			}
+			g.drawImage(distanceImage, 0, 0, null);
+		}
 		if (placingElement != null) {  //NOPMD my eyes would hurt if i switched this around, i suffer the negation here ;-)
 			final int x = placingElement.getX();
 			final int y = placingElement.getY();
@@ -177,6 +190,8 @@ public class GamePanel extends JPanel implements ElementModificationListener, Mo
 	 */
 	public void setHole(final Hole aHole) {
 		hole = aHole;
+		cupDistances = null;
+		distanceImage = null;
 		resetSelectionRect();
 		repaintBuffer();
 		repaint();
@@ -200,12 +215,14 @@ public class GamePanel extends JPanel implements ElementModificationListener, Mo
 	@Override
 	public void mousePressed(final MouseEvent mouseevent) {
 		if (placingElement != null && hole != null) { //NOPMD
-			hole.add(placingElement);
+			final Element placed = placingElement;
+			hole.add(placed);
 			setPlacingElement(null);
 			selection.clear();
 			resetSelectionRect();
 			repaintBuffer();
 			repaint();
+			notifyModified(placed);
 		} else {
 			selx2 = selx1 = mouseevent.getX();
 			sely2 = sely1 = mouseevent.getY();
@@ -291,6 +308,7 @@ public class GamePanel extends JPanel implements ElementModificationListener, Mo
 					for (Element e : selection) {
 						hole.remove(e);					
 					}				
+					notifyModified(selection);
 					selection.clear();
 					repaintBuffer();
 					repaint();				
@@ -398,6 +416,51 @@ public class GamePanel extends JPanel implements ElementModificationListener, Mo
 		repaint();
 	}
 
+	/**
+	 * Shows or hides the distances to the cups of the hole on top of
+	 * the hole. Positions that cannot reach a cup are shown in red.
+	 * @param flag <code>true</code> to show the distances, <code>false</code> otherwise
+	 */
+	public void setShowCupDistances(final boolean flag) {
+		showDistances = flag;
+		repaint();
+	}
+
+	@Override
+	public void cupDistancesComputed(final CupDistanceField field) {
+		cupDistances = field;
+		distanceImage = null;
+		if (showDistances) {
+			repaint();
+		}
+	}
+
+	/**
+	 * Creates the image showing the distances to the cups; near
+	 * positions are yellow, far positions blue.
+	 * @param field the distances to the cups
+	 * @return the image
+	 */
+	private BufferedImage createDistanceImage(final CupDistanceField field) {
+		final int w = field.getWidth(), h = field.getHeight();
+		final int[] pixels = new int[w*h];
+		float max = 1;
+		for (int i = pixels.length; i-->0; ) {
+			max = Math.max(max, field.getDistance(i%w, i/w));
+		}
+		for (int i = pixels.length; i-->0; ) {
+			final int d = field.getDistance(i%w, i/w);
+			if (d == CupDistanceField.UNREACHABLE) {
+				pixels[i] = TRAP_COLOR;
+			} else if (d >= 0) {
+				pixels[i] = DISTANCE_ALPHA|(0xffffff&Color.HSBtoRGB(0.16f+0.5f*d/max, 1f, 1f));
+			}
+		}
+		final BufferedImage result = new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB);
+		result.setRGB(0, 0, w, h, pixels, 0, w);
+		return result;
+	}
+
 	protected void align(final Boundary b, final Element e, final int top, final int left, final int bottom, final int right) {
 		if (b == Boundary.TOP) {
 			e.setY(top);
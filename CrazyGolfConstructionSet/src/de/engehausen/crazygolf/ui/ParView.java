@@ -0,0 +1,232 @@
+package de.engehausen.crazygolf.ui;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.JLabel;
+import javax.swing.SwingUtilities;
+
+import de.engehausen.crazygolf.event.CupDistanceListener;
+import de.engehausen.crazygolf.event.ElementModificationListener;
+import de.engehausen.crazygolf.model.Element;
+import de.engehausen.crazygolf.model.Elements;
+import de.engehausen.crazygolf.model.Hole;
+import de.engehausen.crazygolf.solver.CupDistanceField;
+import de.engehausen.crazygolf.solver.Playfield;
+import de.engehausen.crazygolf.solver.Solution;
+import de.engehausen.crazygolf.solver.Solver;
+import de.engehausen.crazygolf.solver.SolverListener;
+import de.engehausen.mobile.crazygolf.model.ElementOp;
+import de.engehausen.mobile.crazygolf.model.Rectangle;
+
+/**
+ * Shows an estimate of the par value of the current hole. The
+ * estimate is computed by the shot solver on a background thread
+ * and is restarted whenever the hole is modified; the view is updated
+ * while the solver makes progress. The solver plays with perfect
+ * precision, so one stroke is added to its result for the player.
+ * Before solving, the distances to the cups are computed and passed on
+ * to the listeners; start zones and regions without a way to a cup are
+ * reported instead of, or in addition to, the estimate.
+ */
+public class ParView extends JLabel implements ElementModificationListener {
+
+	private static final long serialVersionUID = 1L;
+	private static final long DELAY = 300; // ms to wait for further modifications before estimating
+	private static final int MAX_STROKES = 5;
+	private static final int MAX_PAR = 9;
+
+	private final Elements elements;
+	private final ScheduledExecutorService executor;
+	private final ForkJoinPool pool;
+	private final List<CupDistanceListener> listeners;
+	private Hole hole;
+	private Future<?> estimation;
+	private int generation; // identifies the latest estimation, accessed on the event dispatch thread only
+	private int[] colors; // accessed by the executor thread only
+
+	/**
+	 * Creates the view.
+	 * @param allElements all known elements, must not be <code>null</code>.
+	 */
+	public ParView(final Elements allElements) {
+		super(" ");
+		elements = allElements;
+		executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(final Runnable runnable) {
+				final Thread result = new Thread(runnable, "par estimation");
+				result.setDaemon(true);
+				result.setPriority(Thread.MIN_PRIORITY);
+				return result;
+			}
+		});
+		// leave one processor to the user interface
+		pool = new ForkJoinPool(Math.max(1, Runtime.getRuntime().availableProcessors()-1));
+		listeners = new ArrayList<CupDistanceListener>(1);
+	}
+
+	/**
+	 * Adds the given listener to the view. The listener is called
+	 * on the event dispatch thread.
+	 * @param aListener the listener, must not be <code>null</code>
+	 */
+	public void addCupDistanceListener(final CupDistanceListener aListener) {
+		listeners.add(aListener);
+	}
+
+	/**
+	 * Removes the given listener from the view.
+	 * @param aListener the listener, must not be <code>null</code>
+	 */
+	public void removeCupDistanceListener(final CupDistanceListener aListener) {
+		listeners.remove(aListener);
+	}
+
+	/**
+	 * Sets the hole to estimate the par value for.
+	 * @param aHole the hole, must not be <code>null</code>.
+	 */
+	public void setHole(final Hole aHole) {
+		hole = aHole;
+		restart(0);
+	}
+
+	@Override
+	public void elementModified(final Element element) {
+		if (hole != null) {
+			restart(DELAY);
+		}
+	}
+
+	/**
+	 * Cancels the running estimation and starts a new one. Only a
+	 * snapshot of the hole is taken on the calling thread.
+	 * @param delay the delay in milliseconds before the estimation starts
+	 */
+	protected void restart(final long delay) {
+		if (estimation != null) {
+			estimation.cancel(true);
+		}
+		final int current = ++generation;
+		final ElementOp[] ops = Playfield.getElementOps(hole);
+		setText("Estimating...");
+		setToolTipText(null);
+		estimation = executor.schedule(new Runnable() {
+			@Override
+			public void run() {
+				estimate(current, ops);
+			}
+		}, delay, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Estimates the par value of a hole; runs on the executor thread.
+	 * @param current the number of the estimation
+	 * @param ops the elements of the hole
+	 */
+	protected void estimate(final int current, final ElementOp[] ops) {
+		try {
+			if (colors == null) {
+				colors = Playfield.readNonCollisionColors();
+			}
+			final Playfield playfield = new Playfield(elements, colors, 1, ops);
+			final Rectangle[] zones = playfield.getStartZones();
+			if (zones.length == 0 || playfield.getCups().length == 0) {
+				show(current, "No estimate", "The hole needs a start zone and a cup");
+				show(current, null);
+				return;
+			}
+			final CupDistanceField distances = playfield.getCupDistances();
+			show(current, distances);
+			final StringBuilder problems = new StringBuilder(128);
+			for (Rectangle zone : zones) {
+				if (!distances.isReachable(zone)) {
+					show(current, "No way to a cup", "The start zone at "+zone.cx+","+zone.cy+" cannot reach a cup");
+					return;
+				} else if (distances.isTrapping(zone)) {
+					problems.append("Parts of the start zone at ").append(zone.cx).append(',').append(zone.cy).append(" cannot reach a cup<br>");
+				}
+			}
+			for (Rectangle trap : distances.getTraps()) {
+				problems.append("The region ").append(trap.x).append(',').append(trap.y).append('-').append(trap.ex).append(',').append(trap.ey).append(" cannot reach a cup<br>");
+			}
+			final String warning = problems.length() > 0 ? " (!)" : "";
+			final Solver solver = new Solver(pool, MAX_STROKES, new SolverListener() {
+				@Override
+				public void strokePlayed(final Rectangle zone, final int strokes) {
+					show(current, "Estimating... (>"+strokes+")"+warning, null);
+				}
+			});
+			final StringBuilder tooltip = new StringBuilder(256).append("<html>").append(problems);
+			int strokes = 0;
+			for (Rectangle zone : zones) {
+				final Solution solution = solver.solve(playfield, zone);
+				tooltip.append(solution).append("<br>");
+				if (solution.isSolved()) {
+					strokes = Math.max(strokes, solution.getStrokes());
+				} else {
+					strokes = MAX_STROKES+1;
+				}
+			}
+			tooltip.append("</html>");
+			if (strokes > MAX_STROKES) {
+				show(current, "Estimate: par >"+Math.min(MAX_PAR, MAX_STROKES+1)+warning, tooltip.toString());
+			} else {
+				show(current, "Estimate: par "+Math.min(MAX_PAR, strokes+1)+warning, tooltip.toString());
+			}
+		} catch (InterruptedException e) {
+			// a newer estimation replaces this one
+		} catch (IOException e) {
+			show(current, "No estimate", e.getMessage());
+		} catch (RuntimeException e) {
+			// would otherwise be kept by the future, leaving the estimation shown as running
+			show(current, "No estimate", e.toString());
+		}
+	}
+
+	/**
+	 * Passes the distances to the cups to the listeners unless a newer
+	 * estimation was started.
+	 * @param current the number of the estimation
+	 * @param distances the distances, may be <code>null</code>.
+	 */
+	private void show(final int current, final CupDistanceField distances) {
+		SwingUtilities.invokeLater(new Runnable() {
+			@Override
+			public void run() {
+				if (current == generation) {
+					for (int i = listeners.size(); i-->0; ) {
+						listeners.get(i).cupDistancesComputed(distances);
+					}
+				}
+			}
+		});
+	}
+
+	/**
+	 * Shows the result of an estimation unless a newer estimation was started.
+	 * @param current the number of the estimation
+	 * @param text the text to show
+	 * @param tooltip the tooltip to show, may be <code>null</code>.
+	 */
+	private void show(final int current, final String text, final String tooltip) {
+		SwingUtilities.invokeLater(new Runnable() {
+			@Override
+			public void run() {
+				if (current == generation) {
+					setText(text);
+					setToolTipText(tooltip);
+				}
+			}
+		});
+	}
+
+}
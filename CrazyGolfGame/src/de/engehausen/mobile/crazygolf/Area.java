@@ -3,13 +3,27 @@ package de.engehausen.mobile.crazygolf;
 /**
  * Definition of an area. This can be used to keep track of the
  * modified area in a canvas for more efficient repainting.
+ * The area consists of a few rectangles: a rectangle which is added
+ * is merged with a rectangle it overlaps or lies close to; apart
+ * rectangles are kept apart, so that e.g. the ball at the bottom of
+ * the screen and a text at the top do not make up the whole screen.
  */
 public class Area {
 
-	/** min/max x/y */
+	/** the maximum number of rectangles kept apart */
+	public static final int MAX_RECTANGLES = 8;
+	private static final int SLACK = 16*16; // pixels a merge may cover beyond the merged rectangles
+
+	/** min/max x/y of the bounding box of all rectangles */
 	public int minx, miny, maxx, maxy;
-	
+	private final int[] x1, y1, x2, y2;
+	private int count;
+
 	public Area() {
+		x1 = new int[MAX_RECTANGLES];
+		y1 = new int[MAX_RECTANGLES];
+		x2 = new int[MAX_RECTANGLES];
+		y2 = new int[MAX_RECTANGLES];
 		reset();
 	}
 
@@ -19,6 +33,7 @@ public class Area {
 	public final void reset() {
 		maxx = maxy = 0;
 		minx = miny = Integer.MAX_VALUE;
+		count = 0;
 	}
 
 	/**
@@ -29,10 +44,131 @@ public class Area {
 	 * @param rheight the height of the area to add
 	 */
 	public void addArea(final int rx, final int ry, final int rwidth, final int rheight) {
+		if (rwidth <= 0 || rheight <= 0) {
+			return;
+		}
 		minx = Math.min(minx, rx);
 		miny = Math.min(miny, ry);
 		maxx = Math.max(maxx, rx+rwidth);
 		maxy = Math.max(maxy, ry+rheight);
+		x1[count] = rx;
+		y1[count] = ry;
+		x2[count] = rx+rwidth;
+		y2[count] = ry+rheight;
+		int i = count++;
+		// merge with close rectangles until there is none left
+		for (int j = count; j-->0; ) {
+			if (j != i && isClose(i, j)) {
+				i = merge(i, j);
+				j = count;
+			}
+		}
+		if (count == MAX_RECTANGLES) {
+			// no room for the next rectangle, merge the cheapest pair
+			int best = Integer.MAX_VALUE, a = 0, b = 1;
+			for (int k = count; k-->0; ) {
+				for (int j = k; j-->0; ) {
+					final int cost = getMergeCost(k, j);
+					if (cost < best) {
+						best = cost;
+						a = k;
+						b = j;
+					}
+				}
+			}
+			merge(a, b);
+		}
+	}
+
+	/**
+	 * Returns the number of rectangles of the area.
+	 * @return the number of rectangles of the area.
+	 */
+	public int getCount() {
+		return count;
+	}
+
+	/**
+	 * Returns the x-position of the given rectangle.
+	 * @param i the index of the rectangle
+	 * @return the x-position of the rectangle.
+	 */
+	public int getX(final int i) {
+		return x1[i];
+	}
+
+	/**
+	 * Returns the y-position of the given rectangle.
+	 * @param i the index of the rectangle
+	 * @return the y-position of the rectangle.
+	 */
+	public int getY(final int i) {
+		return y1[i];
+	}
+
+	/**
+	 * Returns the width of the given rectangle.
+	 * @param i the index of the rectangle
+	 * @return the width of the rectangle.
+	 */
+	public int getWidth(final int i) {
+		return x2[i]-x1[i];
+	}
+
+	/**
+	 * Returns the height of the given rectangle.
+	 * @param i the index of the rectangle
+	 * @return the height of the rectangle.
+	 */
+	public int getHeight(final int i) {
+		return y2[i]-y1[i];
+	}
+
+	/**
+	 * Checks whether two rectangles are worth merging.
+	 * @param i the index of the first rectangle
+	 * @param j the index of the second rectangle
+	 * @return <code>true</code> if the rectangles overlap or merging them costs little.
+	 */
+	private boolean isClose(final int i, final int j) {
+		return getMergeCost(i, j) <= SLACK;
+	}
+
+	/**
+	 * Returns the number of pixels a merge of two rectangles covers
+	 * beyond the two rectangles; overlapping rectangles cost nothing.
+	 * @param i the index of the first rectangle
+	 * @param j the index of the second rectangle
+	 * @return the number of pixels covered in addition.
+	 */
+	private int getMergeCost(final int i, final int j) {
+		if (x1[i] <= x2[j] && x1[j] <= x2[i] && y1[i] <= y2[j] && y1[j] <= y2[i]) {
+			return 0; //NOPMD
+		}
+		final int w = Math.max(x2[i], x2[j])-Math.min(x1[i], x1[j]);
+		final int h = Math.max(y2[i], y2[j])-Math.min(y1[i], y1[j]);
+		return w*h-getWidth(i)*getHeight(i)-getWidth(j)*getHeight(j);
+	}
+
+	/**
+	 * Merges two rectangles into one.
+	 * @param i the index of the first rectangle
+	 * @param j the index of the second rectangle
+	 * @return the index of the merged rectangle
+	 */
+	private int merge(final int i, final int j) {
+		final int keep = Math.min(i, j), drop = Math.max(i, j);
+		x1[keep] = Math.min(x1[i], x1[j]);
+		y1[keep] = Math.min(y1[i], y1[j]);
+		x2[keep] = Math.max(x2[i], x2[j]);
+		y2[keep] = Math.max(y2[i], y2[j]);
+		// the last rectangle takes the place of the dropped one
+		count--;
+		x1[drop] = x1[count];
+		y1[drop] = y1[count];
+		x2[drop] = x2[count];
+		y2[drop] = y2[count];
+		return keep;
 	}
 
 }
@@ -0,0 +1,83 @@
+package de.engehausen.mobile.crazygolf;
+
+import javax.microedition.lcdui.Image;
+
+import de.engehausen.mobile.crazygolf.model.Ball;
+import de.engehausen.mobile.crazygolf.model.Course;
+import de.engehausen.mobile.crazygolf.model.Hole;
+import de.engehausen.mobile.crazygolf.renderer.HolePainter;
+
+/**
+ * Reads a hole, paints its background and sets up the terrain of the
+ * ball for it on a thread of its own, so that the next hole can be prepared
+ * while the standings are shown. The ball is not played meanwhile, so
+ * its terrain can be replaced; the hole painter is not used by anything
+ * else while the standings are shown either.
+ */
+public class BackgroundPrefetcher implements Runnable {
+
+	private final HolePainter painter;
+	private final Ball ball;
+	private Thread thread;
+	private Image image;
+	private Course course;
+	private int index;
+	private Hole hole;
+
+	/**
+	 * Creates the prefetcher.
+	 * @param aPainter the painter for the holes, must not be <code>null</code>.
+	 * @param aBall the ball to set up the terrain of, must not be <code>null</code>.
+	 */
+	public BackgroundPrefetcher(final HolePainter aPainter, final Ball aBall) {
+		painter = aPainter;
+		ball = aBall;
+	}
+
+	/**
+	 * Starts painting the background of the given hole.
+	 * @param target the image to paint on, must not be <code>null</code>.
+	 * @param aCourse the course of the hole, must not be <code>null</code>.
+	 * @param anIndex the index of the hole to paint (0..17)
+	 */
+	public synchronized void start(final Image target, final Course aCourse, final int anIndex) {
+		await();
+		image = target;
+		course = aCourse;
+		index = anIndex;
+		thread = new Thread(this);
+		thread.setPriority(Thread.MIN_PRIORITY);
+		thread.start();
+	}
+
+	/**
+	 * Waits until the background is painted.
+	 * @return the hole painted, or <code>null</code> if none was started.
+	 */
+	public synchronized Hole await() {
+		if (thread == null) {
+			return null; //NOPMD
+		}
+		while (thread.isAlive()) {
+			try {
+				thread.join();
+			} catch (InterruptedException e) { //NOPMD
+				// the thread must finish in any case
+			}
+		}
+		thread = null;
+		final Hole result = hole;
+		hole = null;
+		course = null;
+		image = null;
+		return result;
+	}
+
+	// non-javadoc: see interface
+	public void run() {
+		hole = course.getHole(index);
+		painter.render(image.getGraphics(), hole);
+		ball.setBackground(image, hole);
+	}
+
+}
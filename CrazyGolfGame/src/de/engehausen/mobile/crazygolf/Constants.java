@@ -16,6 +16,12 @@ public final class Constants {
 
 	/** name of the elements definition file */
 	public static final String DEFAULT_ELEMENTS = "/elements.txt";
+
+	/** name of the index of the atlas images holding the graphics of the elements */
+	public static final String ATLAS_INDEX = "/atlas.bin";
+
+	/** name of the index of the courses */
+	public static final String COURSE_INDEX = "/courses.txt";
 	
 	/** comma separator character */
 	public static final char SEPARATOR_COMMA = ',';
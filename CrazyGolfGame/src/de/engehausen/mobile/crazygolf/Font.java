@@ -2,6 +2,7 @@ package de.engehausen.mobile.crazygolf;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Hashtable;
 
 import javax.microedition.lcdui.Graphics;
 import javax.microedition.lcdui.Image;
@@ -9,7 +10,11 @@ import javax.microedition.lcdui.game.Sprite;
 
 /**
  * Font for displaying text horizontally
- * or vertically.
+ * or vertically. Texts are painted into images of their own, which
+ * are kept for the texts used most recently, so that painting a text
+ * again takes a single call; the texts of the standings and of messages
+ * are painted over and over again. Vertical text is painted from a
+ * copy of the font graphics rotated in advance.
  */
 public class Font {
 	
@@ -23,12 +28,16 @@ public class Font {
 	                        ALIGN_RIGHT = 1;
 	
 	private static final int SPACE_SIZE = 6;
+	private static final int CACHE_BUDGET = 128*1024; // bytes of text images kept at most
 	
 	private final int widths[];
 	private final int position[];
 	private final int height;
-	private final Image fontImage;
+	private final Image fontImage, rotatedImage;
 	private final int mx, my;
+	private final Hashtable horizontalTexts, verticalTexts; // text images by text
+	private CachedText newest, oldest;
+	private int cacheBytes;
 		
 	/**
 	 * Creates the font from the given graphics file (name).
@@ -58,6 +67,9 @@ public class Font {
 			throw new IllegalStateException("no font image available");
 		}
 		height = fontImage.getHeight();
+		rotatedImage = Image.createImage(fontImage, 0, 0, fontImage.getWidth(), height, ORIENTATION_VERTICAL);
+		horizontalTexts = new Hashtable();
+		verticalTexts = new Hashtable();
 	}
 
 	/**
@@ -70,13 +82,22 @@ public class Font {
 	 * or {@link #ORIENTATION_VERTICAL}).
 	 */
 	public void drawString(final String text, final Graphics graphics, final int x, final int y, final int orientation) {
+		final Image image = getTextImage(text, orientation);
+		if (image != null) {
+			graphics.drawImage(image, x, y, Graphics.TOP|Graphics.LEFT);
+			return;
+		}
 		int cx = x, cy = y;
 		final int max = text.length();
 		for (int i = 0; i < max; i++) {
 			final int idx = text.charAt(i);
 			int w = widths[idx];
 			if (w>0) {
-				graphics.drawRegion(fontImage, position[idx], 0, w, height, orientation, cx, cy, Graphics.TOP|Graphics.LEFT);
+				if (orientation == ORIENTATION_HORIZONTAL) {
+					graphics.drawRegion(fontImage, position[idx], 0, w, height, Sprite.TRANS_NONE, cx, cy, Graphics.TOP|Graphics.LEFT);
+				} else {
+					graphics.drawRegion(rotatedImage, 0, position[idx], height, w, Sprite.TRANS_NONE, cx, cy, Graphics.TOP|Graphics.LEFT);
+				}
 				w++;
 			} else {
 				w = SPACE_SIZE;
@@ -89,6 +110,96 @@ public class Font {
 		}
 	}
 
+	/**
+	 * Returns the image of the given text. The image is painted if
+	 * the text is not among the texts kept; the texts used least
+	 * recently are dropped to stay within the budget.
+	 * @param text the text
+	 * @param orientation the orientation of the text
+	 * @return the image of the text, or <code>null</code> if the text is empty or too large for the budget.
+	 */
+	private Image getTextImage(final String text, final int orientation) {
+		final Hashtable texts = orientation == ORIENTATION_HORIZONTAL ? horizontalTexts : verticalTexts;
+		CachedText entry = (CachedText) texts.get(text);
+		if (entry == null) {
+			final int size = size(text);
+			final int bytes = 4*size*height;
+			if (size == 0 || bytes > CACHE_BUDGET) {
+				return null; //NOPMD
+			}
+			while (cacheBytes+bytes > CACHE_BUDGET) {
+				(oldest.orientation == ORIENTATION_HORIZONTAL ? horizontalTexts : verticalTexts).remove(oldest.text);
+				cacheBytes -= oldest.bytes;
+				unlink(oldest);
+			}
+			entry = new CachedText(text, orientation, createTextImage(text, size, orientation), bytes);
+			texts.put(text, entry);
+			cacheBytes += bytes;
+		} else {
+			unlink(entry);
+		}
+		// the entry becomes the newest
+		entry.older = newest;
+		entry.newer = null;
+		if (newest != null) {
+			newest.newer = entry;
+		}
+		newest = entry;
+		if (oldest == null) {
+			oldest = entry;
+		}
+		return entry.image;
+	}
+
+	/**
+	 * Removes an entry from the list of kept texts.
+	 * @param entry the entry to remove
+	 */
+	private void unlink(final CachedText entry) {
+		if (entry.newer == null) {
+			newest = entry.older;
+		} else {
+			entry.newer.older = entry.older;
+		}
+		if (entry.older == null) {
+			oldest = entry.newer;
+		} else {
+			entry.older.newer = entry.newer;
+		}
+		entry.newer = entry.older = null;
+	}
+
+	/**
+	 * Paints the given text into a transparent image.
+	 * @param text the text to paint
+	 * @param size the size of the text in pixels
+	 * @param orientation the orientation of the text
+	 * @return the image of the text, never <code>null</code>.
+	 */
+	private Image createTextImage(final String text, final int size, final int orientation) {
+		final int[] rgb = new int[size*height];
+		int pos = 0;
+		final int max = text.length();
+		for (int i = 0; i < max; i++) {
+			final int idx = text.charAt(i);
+			final int w = widths[idx];
+			if (w>0) {
+				if (orientation == ORIENTATION_HORIZONTAL) {
+					fontImage.getRGB(rgb, pos, size, position[idx], 0, w, height);
+				} else {
+					rotatedImage.getRGB(rgb, pos*height, height, 0, position[idx], height, w);
+				}
+				pos += w+1;
+			} else {
+				pos += SPACE_SIZE;
+			}
+		}
+		if (orientation == ORIENTATION_HORIZONTAL) {
+			return Image.createRGBImage(rgb, size, height, true);
+		}
+		return Image.createRGBImage(rgb, height, size, true);
+	}
+
 	/**
 	 * Paints a string centered on the screen.
 	 * @param text the text to paint
@@ -132,6 +243,24 @@ public class Font {
 		}
 	}
 
+	/**
+	 * Adds the pixels a string painted by {@link #drawStringCentered(String, Graphics, int, int)}
+	 * covers to the given area.
+	 * @param text the text
+	 * @param pos the offset from the "top".
+	 * @param orientation the orientation of the text ({@link #ORIENTATION_HORIZONTAL}
+	 * or {@link #ORIENTATION_VERTICAL}).
+	 * @param area the area to add to
+	 */
+	public void addStringCenteredArea(final String text, final int pos, final int orientation, final Area area) {
+		final int size = size(text);
+		if (orientation == ORIENTATION_HORIZONTAL) {
+			area.addArea((mx-size)/2, pos, size, height);
+		} else {
+			area.addArea(pos, (my-size)/2, height, size);
+		}
+	}
+
 	/**
 	 * Returns the maximum x value the font paints on.
 	 * @return the maximum x value the font paints on.
@@ -197,5 +326,25 @@ public class Font {
 			}
 		}
 	}
-	
+
+	/**
+	 * A text image kept, in the list of texts from the newest to the oldest.
+	 */
+	private static class CachedText {
+
+		final String text;
+		final int orientation;
+		final Image image;
+		final int bytes;
+		CachedText newer, older;
+
+		CachedText(final String aText, final int anOrientation, final Image anImage, final int size) {
+			text = aText;
+			orientation = anOrientation;
+			image = anImage;
+			bytes = size;
+		}
+
+	}
+
 }
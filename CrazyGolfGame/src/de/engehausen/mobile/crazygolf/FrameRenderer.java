@@ -26,6 +26,16 @@ public interface FrameRenderer extends ClickHandler {
 	 */
 	void handleSwipe(int sx, int sy, int ex, int ey, long time, double distSquare);
 
+	/**
+	 * Handle the pointer being dragged while a swipe is going on.
+	 * @param sx starting position
+	 * @param sy starting position
+	 * @param x current position
+	 * @param y current position
+	 * @param time time since the start of the swipe
+	 */
+	void handleDrag(int sx, int sy, int x, int y, long time);
+
 	/**
 	 * Reset the renderer back to initial painting
 	 * state (next {@link #paint(Graphics)} will be a full
@@ -33,6 +43,13 @@ public interface FrameRenderer extends ClickHandler {
 	 */
 	void reset();
 
+	/**
+	 * Lets the next {@link #paint(Graphics)} be a full paint
+	 * without changing anything else; only called on the painting
+	 * thread.
+	 */
+	void repaintAll();
+
 	/**
 	 * Indicates if a repaint is required. 
 	 * @return <code>true</code> if a paint is required - in this case
@@ -40,4 +57,12 @@ public interface FrameRenderer extends ClickHandler {
 	 */
 	boolean needsRepaint();
 
+	/**
+	 * Returns how long the canvas may wait before checking
+	 * {@link #needsRepaint()} again if there is no input.
+	 * @return the delay in milliseconds, or {@link GolfGameCanvas#IDLE}
+	 * if the renderer only changes on input.
+	 */
+	long getFrameDelay();
+
 }
@@ -0,0 +1,215 @@
+package de.engehausen.mobile.crazygolf;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import javax.microedition.lcdui.Graphics;
+import javax.microedition.rms.RecordStore;
+import javax.microedition.rms.RecordStoreException;
+
+/**
+ * Keeps the metrics of the frames painted last in a ring buffer:
+ * the time since the previous frame, the time spent on the physics,
+ * on painting and on flushing, the number of pixels flushed and the
+ * free heap. Recording a frame does not allocate any memory. The
+ * metrics can be shown as an overlay on the screen and saved in a
+ * record store readable by other midlets, so that numbers can be
+ * collected on real devices.
+ */
+public final class FrameStats {
+
+	/** the width of the overlay */
+	public static final int WIDTH = 150;
+	/** the height of the overlay */
+	public static final int HEIGHT = 48;
+
+	private static final FrameStats INSTANCE = new FrameStats();
+	private static final String NAME = "crazygolf.stats";
+	private static final int VERSION = 1;
+	private static final int SIZE = 256; // frames kept
+	private static final int WINDOW = GolfGameCanvas.FPS; // frames averaged in the overlay
+	private static final int LINE = HEIGHT/3;
+
+	private final int[] interval, physics, paint, flush, pixels, heap;
+	private final char[] line;
+	private int next, count;
+	private long lastFrame, physicsTime;
+
+	private FrameStats() {
+		interval = new int[SIZE];
+		physics = new int[SIZE];
+		paint = new int[SIZE];
+		flush = new int[SIZE];
+		pixels = new int[SIZE];
+		heap = new int[SIZE];
+		line = new char[32];
+	}
+
+	/**
+	 * Returns the frame statistics.
+	 * @return the frame statistics, never <code>null</code>.
+	 */
+	public static FrameStats getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Adds the time spent on the physics to the current frame.
+	 * @param millis the time spent in milliseconds
+	 */
+	public void addPhysics(final long millis) {
+		physicsTime += millis;
+	}
+
+	/**
+	 * Records a frame.
+	 * @param begin the time the frame began
+	 * @param paintTime the time spent on painting (including the physics) in milliseconds
+	 * @param flushTime the time spent on flushing in milliseconds
+	 * @param pixelCount the number of pixels flushed
+	 */
+	public void addFrame(final long begin, final long paintTime, final long flushTime, final int pixelCount) {
+		interval[next] = lastFrame == 0 ? 0 : (int) (begin-lastFrame);
+		physics[next] = (int) physicsTime;
+		paint[next] = (int) (paintTime-physicsTime);
+		flush[next] = (int) flushTime;
+		pixels[next] = pixelCount;
+		heap[next] = (int) (Runtime.getRuntime().freeMemory()>>10);
+		next = (next+1)%SIZE;
+		count = Math.min(SIZE, count+1);
+		lastFrame = begin;
+		physicsTime = 0;
+	}
+
+	/**
+	 * Forgets the time of the previous frame, e.g. after the painting
+	 * thread slept for a long time.
+	 */
+	public void pause() {
+		lastFrame = 0;
+	}
+
+	/**
+	 * Paints the overlay with the averages of the last frames at the top
+	 * left corner.
+	 * @param g the graphics to paint on, must not be <code>null</code>.
+	 */
+	public void paint(final Graphics g) {
+		final int n = Math.min(WINDOW, count);
+		int frames = 0, time = 0, phys = 0, pnt = 0, fl = 0, px = 0;
+		for (int i = n, k = next; i-->0; ) {
+			k = (k+SIZE-1)%SIZE;
+			if (interval[k] > 0) {
+				frames++;
+				time += interval[k];
+			}
+			phys += physics[k];
+			pnt += paint[k];
+			fl += flush[k];
+			px += pixels[k];
+		}
+		final int d = Math.max(1, n);
+		g.setColor(0);
+		g.fillRect(0, 0, WIDTH, HEIGHT);
+		g.setColor(0xffffff);
+		int len = append(0, "fps ");
+		len = append(len, time == 0 ? 0 : 1000*frames/time);
+		len = append(len, " heap ");
+		len = append(len, count == 0 ? 0 : heap[(next+SIZE-1)%SIZE]);
+		len = append(len, "k");
+		g.drawChars(line, 0, len, 2, 0, Graphics.TOP|Graphics.LEFT);
+		len = append(0, "phy ");
+		len = append(len, phys/d);
+		len = append(len, " pnt ");
+		len = append(len, pnt/d);
+		len = append(len, " fl ");
+		len = append(len, fl/d);
+		len = append(len, " ms");
+		g.drawChars(line, 0, len, 2, LINE, Graphics.TOP|Graphics.LEFT);
+		len = append(0, "px ");
+		len = append(len, px/d);
+		g.drawChars(line, 0, len, 2, 2*LINE, Graphics.TOP|Graphics.LEFT);
+	}
+
+	/**
+	 * Saves the frames recorded, oldest first, replacing the frames
+	 * saved before. The record starts with a version byte and the
+	 * number of frames as a short; each frame is stored as six integers:
+	 * the time since the previous frame, the time spent on the physics,
+	 * on painting and on flushing (all in milliseconds), the number of
+	 * pixels flushed and the free heap in KB.
+	 * @return <code>true</code> if the frames were saved, <code>false</code> otherwise.
+	 */
+	public boolean save() {
+		RecordStore store = null;
+		try {
+			final ByteArrayOutputStream bytes = new ByteArrayOutputStream(2+count*24);
+			final DataOutputStream out = new DataOutputStream(bytes);
+			out.writeByte(VERSION);
+			out.writeShort(count);
+			for (int i = count, k = (next+SIZE-count)%SIZE; i-->0; k = (k+1)%SIZE) {
+				out.writeInt(interval[k]);
+				out.writeInt(physics[k]);
+				out.writeInt(paint[k]);
+				out.writeInt(flush[k]);
+				out.writeInt(pixels[k]);
+				out.writeInt(heap[k]);
+			}
+			out.close();
+			final byte[] data = bytes.toByteArray();
+			store = RecordStore.openRecordStore(NAME, true, RecordStore.AUTHMODE_ANY, false);
+			if (store.getNumRecords() == 0) {
+				store.addRecord(data, 0, data.length);
+			} else {
+				store.setRecord(1, data, 0, data.length);
+			}
+			return true;
+		} catch (IOException e) {
+			return false;
+		} catch (RecordStoreException e) {
+			return false;
+		} finally {
+			if (store != null) {
+				try {
+					store.closeRecordStore();
+				} catch (RecordStoreException e) { //NOPMD
+					// nothing we can do
+				}
+			}
+		}
+	}
+
+	/**
+	 * Appends a text to the line buffer.
+	 * @param pos the position to append at
+	 * @param text the text to append
+	 * @return the length of the line
+	 */
+	private int append(final int pos, final String text) {
+		final int len = text.length();
+		text.getChars(0, len, line, pos);
+		return pos+len;
+	}
+
+	/**
+	 * Appends a non-negative number to the line buffer without
+	 * creating a string.
+	 * @param pos the position to append at
+	 * @param value the number to append
+	 * @return the length of the line
+	 */
+	private int append(final int pos, final int value) {
+		int digits = 1;
+		for (int v = value; v >= 10; v /= 10) {
+			digits++;
+		}
+		int v = Math.max(0, value);
+		for (int i = pos+digits; i-->pos; ) {
+			line[i] = (char) ('0'+v%10);
+			v /= 10;
+		}
+		return pos+digits;
+	}
+
+}
@@ -4,6 +4,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.Vector;
 
+import javax.microedition.lcdui.Graphics;
 import javax.microedition.lcdui.Image;
 import javax.microedition.media.Manager;
 import javax.microedition.media.MediaException;
@@ -12,18 +13,24 @@ import de.engehausen.mobile.crazygolf.model.Ball;
 import de.engehausen.mobile.crazygolf.model.Course;
 import de.engehausen.mobile.crazygolf.model.Hole;
 import de.engehausen.mobile.crazygolf.model.Player;
+import de.engehausen.mobile.crazygolf.model.Recording;
 import de.engehausen.mobile.crazygolf.renderer.BallPlaceRenderer;
 import de.engehausen.mobile.crazygolf.renderer.GameRenderer;
 import de.engehausen.mobile.crazygolf.renderer.HolePainter;
 import de.engehausen.mobile.crazygolf.renderer.IntroRenderer;
 import de.engehausen.mobile.crazygolf.renderer.TableRenderer;
+import de.engehausen.mobile.crazygolf.renderer.Util;
 import de.engehausen.mobile.crazygolf.renderer.WinnerRenderer;
 
 /**
  * The game manager manages playing crazy golf.
  * It has states which define which {@link FrameRenderer} to use;
  * it defines state transitions and keeps track of the
- * players.
+ * players. All ball placements and strokes are recorded, so
+ * that the round can be replayed (see {@link #replay(Recording)}).
+ * The background of the next hole is painted into a second image
+ * while the standings are shown; the images swap places when the next
+ * hole starts.
  */
 public class GameManager {
 
@@ -53,7 +60,10 @@ public class GameManager {
 	private final Main main;
 	private final Ball ball;
 	private final HolePainter renderer;
-	private final Image background;
+	private final BackgroundPrefetcher prefetcher;
+	private Image background, nextBackground;
+	private Image dimmedBackground; // painted when first needed for a hole
+	private Hole dimmedHole; // the hole the dimmed background was painted for
 	private final FrameRenderer introRenderer, placementRenderer, gameRenderer, tableRenderer, winnerRenderer;
 	private final Course[] courses;
 	private final Element[] elements;
@@ -62,6 +72,8 @@ public class GameManager {
 	private Player[] players;
 	private int player;
 	private boolean sound;
+	private Recording recording;
+	private boolean replaying;
 	private final javax.microedition.media.Player soundPlayer[] = new javax.microedition.media.Player[WAVES.length];
 
 	/**
@@ -80,6 +92,8 @@ public class GameManager {
 		ball = aBall;
 		renderer = aHolePainter;
 		background = Image.createImage(view.getWidth(), view.getHeight());
+		nextBackground = Image.createImage(view.getWidth(), view.getHeight());
+		prefetcher = new BackgroundPrefetcher(renderer, ball);
 		introRenderer = new IntroRenderer(this, aFont);
 		placementRenderer = new BallPlaceRenderer(renderer, this, aFont);
 		gameRenderer = new GameRenderer(this, aFont);
@@ -149,9 +163,82 @@ public class GameManager {
 			players[i] = new Player(i); //NOPMD
 		}
 		holeIndex = -1;
+		recording = new Recording(c.getName(), playerCount);
+		replaying = false;
 		nextHole();
 	}
 
+	/**
+	 * Replays a recorded round. The ball placements and strokes are
+	 * taken from the recording until it ends; then the players take
+	 * over and the round is recorded on.
+	 * @param aRecording the recording to replay, must not be <code>null</code>.
+	 * @return <code>true</code> if the round is replayed, <code>false</code> if the course is unknown.
+	 */
+	public boolean replay(final Recording aRecording) {
+		for (int i = courses.length; i-->0; ) {
+			if (courses[i].getName().equals(aRecording.getCourseName())) {
+				setCourse(courses[i], aRecording.getPlayerCount(), false);
+				recording = aRecording;
+				replaying = true;
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Indicates whether the round is being replayed.
+	 * @return <code>true</code> if the ball placements and strokes are
+	 * taken from the recording, <code>false</code> if the players play.
+	 */
+	public boolean isReplaying() {
+		return replaying;
+	}
+
+	/**
+	 * Returns the recording of the current round.
+	 * @return the recording of the current round.
+	 */
+	public Recording getRecording() {
+		return recording;
+	}
+
+	/**
+	 * Stops replaying the round; the players take over from here.
+	 */
+	public void stopReplay() {
+		if (replaying) {
+			replaying = false;
+			recording.truncate();
+		}
+	}
+
+	/**
+	 * Places the ball for the current player and starts playing.
+	 * @param x x-position of the ball
+	 * @param y y-position of the ball
+	 */
+	public void placeBall(final int x, final int y) {
+		ball.setPosition(x, y);
+		if (!replaying) {
+			recording.addPlacement(x, y);
+		}
+		setState(STATE_PLAY);
+	}
+
+	/**
+	 * Hits the ball.
+	 * @param speedX the x component of the speed (fixed-point), see {@link Recording#quantize(int)}
+	 * @param speedY the y component of the speed (fixed-point), see {@link Recording#quantize(int)}
+	 */
+	public void strike(final int speedX, final int speedY) {
+		ball.addSpeed(speedX, speedY);
+		if (!replaying) {
+			recording.addStroke(speedX, speedY);
+		}
+	}
+
 	/**
 	 * Returns an element by ID.
 	 * @param id the ID of an element
@@ -185,6 +272,7 @@ public class GameManager {
 				view.setFrameRenderer(winnerRenderer);
 				break;
 			case STATE_SHOW_MENU:
+				saveRound();
 				main.showMenu();
 				break;
 			default:
@@ -200,6 +288,9 @@ public class GameManager {
 			player++;
 			setState(STATE_PLACE_BALL);
 		} else {
+			if (holeIndex < 17) {
+				prefetcher.start(nextBackground, course, holeIndex+1);
+			}
 			setState(STATE_SHOW_TABLE);
 		}
 	}
@@ -210,10 +301,22 @@ public class GameManager {
 	 * <code>false</code> otherwise.
 	 */
 	public boolean nextHole() {
+		if (holeIndex >= 0) {
+			saveRound();
+		}
 		if (holeIndex < 17) {
-			holeIndex++;
-			player = 0;
-			computeBackground();
+			synchronized (this) {
+				// the dimmed background must not be painted from a hole and a background not belonging together
+				holeIndex++;
+				player = 0;
+				if (prefetcher.await() == getCurrentHole()) {
+					final Image temp = background;
+					background = nextBackground;
+					nextBackground = temp;
+				} else {
+					computeBackground();
+				}
+			}
 			if (holeIndex == 0) {
 				setState(STATE_SHOW_INTRO);				
 			} else {
@@ -265,6 +368,25 @@ public class GameManager {
 		return background;
 	}
 
+	/**
+	 * Returns the current background image grayed out, as shown
+	 * behind texts. It is painted once per hole.
+	 * @return the grayed out background image, never <code>null</code>.
+	 */
+	public synchronized Image getDimmedBackground() {
+		final Hole hole = getCurrentHole();
+		if (dimmedHole != hole) {
+			if (dimmedBackground == null) {
+				dimmedBackground = Image.createImage(background.getWidth(), background.getHeight());
+			}
+			final Graphics g = dimmedBackground.getGraphics();
+			g.drawImage(background, 0, 0, Graphics.TOP|Graphics.LEFT);
+			Util.getInstance().grayOut(g, 0, 0, background.getWidth(), background.getHeight());
+			dimmedHole = hole;
+		}
+		return dimmedBackground;
+	}
+
 	/**
 	 * Returns the current course.
 	 * @return the current course.
@@ -279,7 +401,7 @@ public class GameManager {
 	 * @return the current hole.
 	 */
 	public Hole getCurrentHole() {
-		return course.getHoles()[holeIndex];
+		return course.getHole(holeIndex);
 	}
 	
 	/**
@@ -308,12 +430,38 @@ public class GameManager {
 	}
 
 	/**
-	 * Loads all courses.
+	 * Loads all courses listed in the course index (see
+	 * {@link Constants#COURSE_INDEX}). Only the names of the courses
+	 * and where to find their holes are read; a hole is read when play
+	 * reaches it. The index is written by the course indexer of the
+	 * construction set when building; without an index, the courses
+	 * are looked for and read completely.
 	 * @param elements the elements backing the courses, must not be <code>null</code>.
 	 * @return an array with all courses, never <code>null</code>.
 	 * @throws IOException in case of error
 	 */
 	private Course[] loadCourses(final Element[] elements) throws IOException {
+		final InputStream is = getClass().getResourceAsStream(Constants.COURSE_INDEX);
+		if (is == null) {
+			return findCourses(elements);
+		}
+		try {
+			return Course.readIndex(elements, is);
+		} finally {
+			is.close();
+		}
+	}
+
+	/**
+	 * Looks for the courses <code>/00.crs</code> to <code>/99.crs</code>
+	 * and reads them completely. The graphics of the holes of a course
+	 * <code>nn.crs</code> are read from the images in the directory
+	 * <code>nn</code> if there are any.
+	 * @param elements the elements backing the courses, must not be <code>null</code>.
+	 * @return an array with all courses, never <code>null</code>.
+	 * @throws IOException in case of error
+	 */
+	private Course[] findCourses(final Element[] elements) throws IOException {
 		final StringBuffer name = new StringBuffer(16);
 		name.append('/');
 		final Vector list = new Vector(4);
@@ -322,10 +470,24 @@ public class GameManager {
 			if (i < 10) {
 				name.append('0');
 			}
-			name.append(i).append(".crs");
+			name.append(i);
+			final int length = name.length();
+			name.append("/01.png");
+			final InputStream baked = getClass().getResourceAsStream(name.toString());
+			String backgrounds = null;
+			if (baked != null) {
+				baked.close();
+				backgrounds = name.toString().substring(0, length+1);
+			}
+			name.setLength(length); //NOPMD not a constructor call
+			name.append(".crs");
 			final InputStream is = getClass().getResourceAsStream(name.toString());
 			if (is != null) {
-				list.addElement(Course.load(elements, is));
+				try {
+					list.addElement(Course.load(elements, is, backgrounds));
+				} finally {
+					is.close();
+				}
 			}
 		}
 		final Course[] result = new Course[list.size()];
@@ -333,12 +495,22 @@ public class GameManager {
 		return result;
 	}
 
+	/**
+	 * Saves the recording of the round unless it is being replayed.
+	 */
+	private void saveRound() {
+		if (recording != null && !replaying) {
+			RoundStore.save(recording);
+		}
+	}
+
 	/**
 	 * Paints the background image for the current hole.
 	 */
 	private void computeBackground() {
 		final Hole h = getCurrentHole();
 		renderer.render(background.getGraphics(), h);
+		ball.setBackground(background, h);
 	}
 
 }
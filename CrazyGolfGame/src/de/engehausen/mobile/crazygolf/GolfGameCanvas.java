@@ -1,14 +1,21 @@
 package de.engehausen.mobile.crazygolf;
 
+import javax.microedition.lcdui.Graphics;
 import javax.microedition.lcdui.game.GameCanvas;
 
 /**
  * The golf game canvas is the main canvas showing the game.
  * It holds a {@link FrameRenderer} which paints the pixels on demand.
- * The frame renderer is checked for the need of repaints with the
- * frame rate specified in {@link #FPS}. If the device is too slow,
- * rendering will happen as quickly as possible, but no frames will
- * be dropped (this may cause the game to look slowish...).
+ * The painting thread asks the frame renderer for repaints at most with
+ * the frame rate specified in {@link #FPS}, and only as often as the
+ * renderer requests; otherwise it sleeps until there is input. If the
+ * device is too slow, rendering will happen as quickly as possible; the
+ * ball physics runs in fixed steps of its own and catches up with the
+ * time passed (see {@link de.engehausen.mobile.crazygolf.renderer.GameRenderer}).
+ * While the midlet is paused the thread does not run at all.
+ * Holding the top left corner for a second (or pressing <code>#</code>)
+ * toggles an overlay with the {@link FrameStats}; when the overlay is
+ * switched off, the statistics are saved.
  */
 public class GolfGameCanvas extends GameCanvas implements Runnable {
 
@@ -16,11 +23,25 @@ public class GolfGameCanvas extends GameCanvas implements Runnable {
 	 * The frame rate at which paints should occur.
 	 */
 	public static final int FPS = 20;
+
+	/**
+	 * The duration of a frame in milliseconds.
+	 */
+	public static final long FRAME_WAIT = 1000L/FPS;
+
+	/**
+	 * Frame delay of renderers which only change on input.
+	 */
+	public static final long IDLE = -1;
+
+	private static final int CORNER = 32; // size of the corner toggling the statistics
+	private static final long HOLD = 1000; // milliseconds to hold the corner
 	
-	private static final long FRAME_WAIT = 1000L/FPS;
-	
-	private boolean running;
+	private final Object lock;
+	private Thread thread; // the painting thread, guarded by lock
+	private boolean paused, signalled; // guarded by lock
 	private volatile FrameRenderer frameRenderer;
+	private volatile boolean showStats, repaintAll;
 	private int startX, startY;
 	private long startTime;
 
@@ -29,6 +50,7 @@ public class GolfGameCanvas extends GameCanvas implements Runnable {
 	 */
 	public GolfGameCanvas() {
 		super(true);
+		lock = new Object();
 	}
 
 	/**
@@ -38,37 +60,97 @@ public class GolfGameCanvas extends GameCanvas implements Runnable {
 	public void setFrameRenderer(final FrameRenderer renderer) {
 		frameRenderer = renderer;
 		frameRenderer.reset();
+		wakeUp();
 	}
 
 	/**
 	 * Starts the periodic painting thread.
 	 */
 	public void start() {
-		running = true;
-		new Thread(this).start();
+		synchronized (lock) {
+			thread = new Thread(this);
+			thread.start();
+		}
 	}
 	
 	/**
 	 * Stops the periodic painting thread.
 	 */
 	public void stop() {
-		running = false;
+		synchronized (lock) {
+			thread = null;
+			lock.notify();
+		}
+	}
+
+	/**
+	 * Parks or resumes the painting thread, e.g. while the midlet is paused.
+	 * @param flag <code>true</code> to park the thread, <code>false</code> to resume it.
+	 */
+	public void setPaused(final boolean flag) {
+		synchronized (lock) {
+			paused = flag;
+			signalled = true;
+			lock.notify();
+		}
+	}
+
+	/**
+	 * Lets the painting thread check the frame renderer for a repaint.
+	 */
+	public void wakeUp() {
+		synchronized (lock) {
+			signalled = true;
+			lock.notify();
+		}
 	}
 
 	// handle rendering the frames
 	public void run() {
-		while (running) {
+		final FrameStats stats = FrameStats.getInstance();
+		while (isCurrent(Thread.currentThread())) {
 			final long begin = System.currentTimeMillis();
-			if (frameRenderer != null && frameRenderer.needsRepaint()) {
-				final Area a = frameRenderer.paint(getGraphics());
-				if (a == null) {
-					flushGraphics();					
-				} else {
-					flushGraphics(a.minx, a.miny, a.maxx-a.minx, a.maxy-a.miny);					
+			final FrameRenderer renderer = frameRenderer;
+			long delay = IDLE;
+			if (renderer != null) {
+				if (repaintAll) {
+					repaintAll = false;
+					renderer.repaintAll();
+				}
+				if (renderer.needsRepaint()) {
+					final Graphics g = getGraphics();
+					final Area a = renderer.paint(g);
+					final long painted = System.currentTimeMillis();
+					int pixels = getWidth()*getHeight();
+					if (a != null) {
+						pixels = 0;
+						for (int i = a.getCount(); i-->0; ) {
+							pixels += a.getWidth(i)*a.getHeight(i);
+						}
+					}
+					if (showStats) {
+						stats.paint(g);
+						if (a != null) {
+							a.addArea(0, 0, FrameStats.WIDTH, FrameStats.HEIGHT);
+						}
+					}
+					if (a == null) {
+						flushGraphics();					
+					} else {
+						for (int i = a.getCount(); i-->0; ) {
+							flushGraphics(a.getX(i), a.getY(i), a.getWidth(i), a.getHeight(i));
+						}
+					}
+					stats.addFrame(begin, painted-begin, System.currentTimeMillis()-painted, pixels);
 				}
+				delay = renderer.getFrameDelay();
+			}
+			if (!await(delay == IDLE ? Long.MAX_VALUE : begin+Math.max(FRAME_WAIT, delay))) {
+				// the frames before and after an idle period are not related
+				stats.pause();
 			}
-			final long duration = System.currentTimeMillis() - begin;
-			final long wait = FRAME_WAIT - duration;
+			// even when woken up early, frames are not painted faster than the frame rate
+			final long wait = FRAME_WAIT - (System.currentTimeMillis() - begin);
 			if (wait > 0) {
 				try {
 					Thread.sleep(wait);
@@ -78,15 +160,81 @@ public class GolfGameCanvas extends GameCanvas implements Runnable {
 			}
 		}
 	}
+
+	/**
+	 * Checks whether the given thread is the painting thread.
+	 * @param t the thread to check
+	 * @return <code>true</code> if the thread should go on painting.
+	 */
+	private boolean isCurrent(final Thread t) {
+		synchronized (lock) {
+			return thread == t;
+		}
+	}
+
+	/**
+	 * Waits until the given time, until woken up or, while paused,
+	 * until resumed.
+	 * @param until the time to wait until, {@link Long#MAX_VALUE} to wait until woken up
+	 * @return <code>true</code> if the thread did not wait longer than requested.
+	 */
+	private boolean await(final long until) {
+		synchronized (lock) {
+			final boolean timed = !paused && until != Long.MAX_VALUE;
+			long now = System.currentTimeMillis();
+			while (thread == Thread.currentThread() && (paused || (!signalled && now < until))) {
+				try {
+					lock.wait(paused || until == Long.MAX_VALUE ? 0 : until-now);
+				} catch (InterruptedException e) {
+					// ignore
+				}
+				now = System.currentTimeMillis();
+			}
+			signalled = false;
+			return timed && !paused; //NOPMD
+		}
+	}
 		
 	// non-javadoc: see superclass
 	protected void pointerReleased(final int x, final int y) {
+		if (startX < CORNER && startY < CORNER && x < CORNER && y < CORNER && System.currentTimeMillis()-startTime > HOLD) {
+			toggleStats();
+			return;
+		}
 		final double d = (x-startX)*(x-startX)+(y-startY)*(y-startY);
 		if (d < 9) {
 			frameRenderer.handleClick(x, y);			
 		} else {
 			frameRenderer.handleSwipe(startX, startY, x, y, System.currentTimeMillis()-startTime, d);
 		}
+		wakeUp();
+	}
+
+	// non-javadoc: see superclass
+	protected void pointerDragged(final int x, final int y) {
+		frameRenderer.handleDrag(startX, startY, x, y, System.currentTimeMillis()-startTime);
+		wakeUp();
+	}
+
+	// non-javadoc: see superclass
+	protected void keyPressed(final int keyCode) {
+		if (keyCode == KEY_POUND) {
+			toggleStats();
+		}
+	}
+
+	/**
+	 * Shows or hides the overlay with the frame statistics. The
+	 * statistics are saved when the overlay is hidden.
+	 */
+	private void toggleStats() {
+		showStats = !showStats;
+		if (!showStats) {
+			FrameStats.getInstance().save();
+		}
+		// paint everything, covering or uncovering the overlay; the state of the renderer is kept
+		repaintAll = true;
+		wakeUp();
 	}
 
 	// non-javadoc: see superclass
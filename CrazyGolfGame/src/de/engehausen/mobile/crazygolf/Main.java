@@ -10,6 +10,7 @@ import javax.microedition.midlet.MIDletStateChangeException;
 
 import de.engehausen.mobile.crazygolf.model.Ball;
 import de.engehausen.mobile.crazygolf.model.Course;
+import de.engehausen.mobile.crazygolf.model.Recording;
 import de.engehausen.mobile.crazygolf.renderer.HolePainter;
 
 /**
@@ -53,7 +54,10 @@ public class Main extends MIDlet {
 
 	// non-javadoc: see interface
 	protected void pauseApp() {
-		// do nothing
+		if (gameCanvas != null) {
+			// no painting or physics while paused
+			gameCanvas.setPaused(true);
+		}
 	}
 
 	// non-javadoc: see interface
@@ -66,7 +70,7 @@ public class Main extends MIDlet {
 				gameCanvas = new GolfGameCanvas();
 				final HolePainter holePainter = new HolePainter(elements, WIDTH, HEIGHT);
 				final Image colors = Image.createImage("/colors.png");
-				gameManager = new GameManager(this, gameCanvas, new Ball(holePainter.getImage(elements[0]), colors, elements[0], WIDTH, HEIGHT), holePainter, font, elements);
+				gameManager = new GameManager(this, gameCanvas, new Ball(holePainter.createImage(elements[0]), colors, elements[0], WIDTH, HEIGHT), holePainter, font, elements);
 				gameCanvas.setFullScreenMode(true);
 				menuCanvas = new MainCanvas(this, font, gameManager.getCourses());
 				menuCanvas.setFullScreenMode(true);
@@ -74,6 +78,8 @@ public class Main extends MIDlet {
 			} catch (IOException e) {
 				throw new MIDletStateChangeException(e.getMessage()); //NOPMD no exception nesting on small device
 			}
+		} else {
+			gameCanvas.setPaused(false);
 		}
 		activateCanvas();
 	}
@@ -108,5 +114,17 @@ public class Main extends MIDlet {
 		activateCanvas();
 		gameCanvas.start();
 	}
+
+	/**
+	 * Replays the round played last, if there is one.
+	 */
+	public void replayRound() {
+		final Recording recording = RoundStore.load();
+		if (recording != null && gameManager.replay(recording)) {
+			currentCanvas = gameCanvas;
+			activateCanvas();
+			gameCanvas.start();
+		}
+	}
 	
 }
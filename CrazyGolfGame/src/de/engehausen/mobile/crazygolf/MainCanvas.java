@@ -23,6 +23,7 @@ public class MainCanvas extends Canvas implements Painter, ClickHandler {
 	
 	private final static String EXIT = "exit";
 	private final static String PLAY = "play";
+	private final static String REPLAY = "replay";
 	
 	private final Main main;
 	private final Font font;
@@ -62,8 +63,11 @@ public class MainCanvas extends Canvas implements Painter, ClickHandler {
 	// non-javadoc: see interface
 	public boolean handleClick(final int x, final int y) {
 		if (y >= buttonY) {
-			if (x < font.getMaxX()/2) {
+			final int third = font.getMaxX()/3;
+			if (x < third) {
 				main.playCourse(allCourses[courses.getSelectionIndex()], 1+players.getSelectionIndex(), sfx.getSelectionIndex()==0);
+			} else if (x < 2*third) {
+				main.replayRound();
 			} else {
 				main.exit();
 			}
@@ -100,6 +104,7 @@ public class MainCanvas extends Canvas implements Painter, ClickHandler {
 		}
 		if (renderMode(RENDER_BUTTONS)) {
 			font.drawStringAligned(PLAY, g, buttonY, Font.ORIENTATION_HORIZONTAL, Font.ALIGN_LEFT, 32);
+			font.drawStringCentered(REPLAY, g, buttonY, Font.ORIENTATION_HORIZONTAL);
 			font.drawStringAligned(EXIT, g, buttonY, Font.ORIENTATION_HORIZONTAL, Font.ALIGN_RIGHT, 32);
 		}
 		if (renderMode(RENDER_PLAYERS)) {
@@ -43,17 +43,21 @@ public class Message {
 	 * Paints the message into the given graphics contents.
 	 * @param g the graphics context, must not be <code>null</code>.
 	 * @param background the background (used for restoring the pixel overlayed by the message), must not be <code>null</code>.
+	 * @param area the area to add the modified pixels to, must not be <code>null</code>.
 	 */
-	public void paint(final Graphics g, final Image background) {
+	public void paint(final Graphics g, final Image background, final Area area) {
 		if (--count > 0) {
 			if (initial) {
 				// restore background first time round
 				hide(g, background);
+				area.addArea(0, y, font.getMaxX(), font.getCharHeight());
 				initial = false;
 			}
 			font.drawStringCentered(text, g, y, Font.ORIENTATION_HORIZONTAL);
+			font.addStringCenteredArea(text, y, Font.ORIENTATION_HORIZONTAL, area);
 		} else {
 			hide(g, background);
+			area.addArea(0, y, font.getMaxX(), font.getCharHeight());
 		}
 	}
 
@@ -0,0 +1,79 @@
+package de.engehausen.mobile.crazygolf;
+
+import javax.microedition.rms.RecordStore;
+import javax.microedition.rms.RecordStoreException;
+
+import de.engehausen.mobile.crazygolf.model.Recording;
+
+/**
+ * Keeps the recording of the last round in a record store. The
+ * record store can be read by other midlets, so that rounds can be
+ * shared and attached to bug reports.
+ */
+public class RoundStore {
+
+	private static final String NAME = "crazygolf.round";
+
+	private RoundStore() {
+		// not to be instantiated
+	}
+
+	/**
+	 * Saves the given recording, replacing the recording saved before.
+	 * @param recording the recording to save, must not be <code>null</code>.
+	 * @return <code>true</code> if the recording was saved, <code>false</code> otherwise.
+	 */
+	public static boolean save(final Recording recording) {
+		final byte[] data = recording.toByteArray();
+		RecordStore store = null;
+		try {
+			store = RecordStore.openRecordStore(NAME, true, RecordStore.AUTHMODE_ANY, false);
+			if (store.getNumRecords() == 0) {
+				store.addRecord(data, 0, data.length);
+			} else {
+				store.setRecord(1, data, 0, data.length);
+			}
+			return true;
+		} catch (RecordStoreException e) {
+			return false;
+		} finally {
+			close(store);
+		}
+	}
+
+	/**
+	 * Loads the recording saved last.
+	 * @return the recording, or <code>null</code> if there is none.
+	 */
+	public static Recording load() {
+		RecordStore store = null;
+		try {
+			store = RecordStore.openRecordStore(NAME, true);
+			if (store.getNumRecords() == 0) {
+				return null;
+			}
+			return new Recording(store.getRecord(1));
+		} catch (RecordStoreException e) {
+			return null;
+		} catch (IllegalArgumentException e) {
+			return null;
+		} finally {
+			close(store);
+		}
+	}
+
+	/**
+	 * Closes the given record store.
+	 * @param store the record store, may be <code>null</code>.
+	 */
+	private static void close(final RecordStore store) {
+		if (store != null) {
+			try {
+				store.closeRecordStore();
+			} catch (RecordStoreException e) { //NOPMD
+				// nothing we can do
+			}
+		}
+	}
+
+}
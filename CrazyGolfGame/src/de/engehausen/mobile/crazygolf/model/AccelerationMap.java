@@ -0,0 +1,169 @@
+package de.engehausen.mobile.crazygolf.model;
+
+import java.util.Hashtable;
+
+import de.engehausen.mobile.crazygolf.Element;
+
+/**
+ * Per-pixel map of the acceleration acting on the ball. The map
+ * combines the slopes (vector fields) of a hole with the pull of its
+ * cups. Each pixel holds the index of an entry; an entry defines the
+ * acceleration and, near a cup, the cup the ball may be captured by.
+ * The map is computed once per hole, so that the forces acting on the
+ * ball are found with a single lookup.
+ */
+public class AccelerationMap {
+
+	/** value indicating that there is no cup nearby */
+	public static final int NO_CUP = -1;
+
+	private static final int ATTRACT_RANGE = 9; // pixels
+	private static final int ATTRACT_DIST = Fixed.toFixed(ATTRACT_RANGE*ATTRACT_RANGE);
+
+	private final short[] map;
+	private final int width, height;
+	private int[] accelerationX, accelerationY, cups;
+	private int size;
+
+	/**
+	 * Creates the (empty) acceleration map.
+	 * @param aWidth the width of the screen.
+	 * @param aHeight the height of the screen.
+	 */
+	public AccelerationMap(final int aWidth, final int aHeight) {
+		width = aWidth;
+		height = aHeight;
+		map = new short[aWidth*aHeight];
+		accelerationX = new int[16];
+		accelerationY = new int[16];
+		cups = new int[16];
+	}
+
+	/**
+	 * Computes the map for the given hole.
+	 * @param hole the hole, must not be <code>null</code>.
+	 * @param materials the material map of the hole, must not be <code>null</code>.
+	 */
+	public void compute(final Hole hole, final MaterialMap materials) {
+		size = 0;
+		add(0, 0, NO_CUP); // entry zero: no acceleration
+		// slopes: one entry per vector field
+		final Hashtable entries = new Hashtable();
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				final int type = materials.getMaterial(x, y).type;
+				int entry = 0;
+				if (type != Element.TYPE_NORMAL) {
+					final VectorField field = hole.findVectorField(x, y, type);
+					if (field != null) {
+						final Integer known = (Integer) entries.get(field);
+						if (known == null) {
+							entry = add(field.getDeltaX(), field.getDeltaY(), NO_CUP);
+							entries.put(field, new Integer(entry)); //NOPMD
+						} else {
+							entry = known.intValue();
+						}
+					}
+				}
+				map[y*width+x] = (short) entry;
+			}
+		}
+		// cups: one entry per pixel in range of a cup
+		final Rectangle[] holes = hole.getHoles();
+		for (int c = 0; c < holes.length; c++) {
+			final int cx = holes[c].cx, cy = holes[c].cy;
+			for (int y = Math.max(0, cy-ATTRACT_RANGE); y <= Math.min(height-1, cy+ATTRACT_RANGE); y++) {
+				for (int x = Math.max(0, cx-ATTRACT_RANGE); x <= Math.min(width-1, cx+ATTRACT_RANGE); x++) {
+					// distance to the center of the pixel, never zero
+					final int dx = Fixed.toFixed(cx-x)-Fixed.HALF, dy = Fixed.toFixed(cy-y)-Fixed.HALF;
+					final int dist = Fixed.mul(dx, dx)+Fixed.mul(dy, dy);
+					if (dist < ATTRACT_DIST) {
+						final int i = y*width+x;
+						int entry = map[i];
+						if (cups[entry] == NO_CUP) {
+							entry = add(accelerationX[entry], accelerationY[entry], c);
+							map[i] = (short) entry;
+						} else {
+							cups[entry] = c;
+						}
+						final int d = 2*Fixed.sqrt(dist);
+						accelerationX[entry] += Fixed.div(dx, d);
+						accelerationY[entry] += Fixed.div(dy, d);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the entry for the given position.
+	 * @param x x-position
+	 * @param y y-position
+	 * @return the entry (zero outside of the screen)
+	 */
+	public int getEntry(final int x, final int y) {
+		if (x >= 0 && x < width && y >= 0 && y < height) {
+			return map[y*width+x];
+		} else {
+			return 0;
+		}
+	}
+
+	/**
+	 * Returns the x component of the acceleration of the given entry.
+	 * @param entry the entry
+	 * @return the x component of the acceleration (fixed-point)
+	 */
+	public int getAccelerationX(final int entry) {
+		return accelerationX[entry];
+	}
+
+	/**
+	 * Returns the y component of the acceleration of the given entry.
+	 * @param entry the entry
+	 * @return the y component of the acceleration (fixed-point)
+	 */
+	public int getAccelerationY(final int entry) {
+		return accelerationY[entry];
+	}
+
+	/**
+	 * Returns the cup in range of the given entry.
+	 * @param entry the entry
+	 * @return the index of the cup in {@link Hole#getHoles()}, or {@link #NO_CUP}
+	 */
+	public int getCup(final int entry) {
+		return cups[entry];
+	}
+
+	/**
+	 * Adds an entry.
+	 * @param ax the x component of the acceleration
+	 * @param ay the y component of the acceleration
+	 * @param cup the cup in range, or {@link #NO_CUP}
+	 * @return the index of the new entry
+	 */
+	private int add(final int ax, final int ay, final int cup) {
+		if (size == cups.length) {
+			accelerationX = grow(accelerationX);
+			accelerationY = grow(accelerationY);
+			cups = grow(cups);
+		}
+		accelerationX[size] = ax;
+		accelerationY[size] = ay;
+		cups[size] = cup;
+		return size++;
+	}
+
+	/**
+	 * Returns a copy of the given array with twice the length.
+	 * @param array the array to copy
+	 * @return the larger copy
+	 */
+	private static int[] grow(final int[] array) {
+		final int[] result = new int[2*array.length];
+		System.arraycopy(array, 0, result, 0, array.length);
+		return result;
+	}
+
+}
@@ -5,39 +5,21 @@ import javax.microedition.lcdui.Image;
 import javax.microedition.lcdui.game.Sprite;
 
 import de.engehausen.mobile.crazygolf.Element;
-import de.engehausen.mobile.crazygolf.GameManager;
 
 /**
- * The golf ball in the game...
+ * The golf ball in the game... The ball paints itself; its physics
+ * is simulated by a {@link Simulation} on the {@link HoleTerrain}
+ * of the current hole.
  */
 public class Ball {
 
-	private static final double FRICTION = 0.987d;
-	private static final double ANGLES[][] = new double[45][2];
-	private static final double RING[][] = new double[9][2];
-	
-	static {
-		final double PI2 = Math.PI*2;
-		for (int i = 0; i < ANGLES.length; i++) {
-			final double a = PI2*i/ANGLES.length;
-			ANGLES[i][0] = Math.cos(a);
-			ANGLES[i][1] = Math.sin(a);	
-		}
-		for (int i = 0; i < RING.length; i++) {
-			final double a = PI2*i/RING.length;
-			RING[i][0] = 3d*Math.cos(a);
-			RING[i][1] = 3d*Math.sin(a);
-		}
-	}
-	
 	private final Image elementsImage;
 	private final Element element;	
-	private double x, y;
-	private double vx, vy;
-	private final int[] pixel;
-	private boolean holed;
-	private final int maxx, maxy;
-	private final int[] colors; // colors that are not considered a collision
+	private final Simulation simulation;
+	private final HoleTerrain terrain;
+	private final int[] row;
+	private int lastX, lastY; // position before the last physics step
+	private int paintX, paintY; // where the ball was painted last (pixels)
 	private final int width, height;
 
 	/**
@@ -53,10 +35,9 @@ public class Ball {
 		width = ballImage.getWidth();
 		height = ballImage.getHeight();
 		element = e;
-		pixel = new int[1];
-		maxx = screenWidth;
-		maxy = screenHeight;
-		colors = getNonCollisionColors(nonCollisionColors);
+		simulation = new Simulation();
+		terrain = new HoleTerrain(getNonCollisionColors(nonCollisionColors), screenWidth, screenHeight);
+		row = new int[screenWidth];
 	}
 	
 	/**
@@ -71,6 +52,30 @@ public class Ball {
 		return pixels;
 	}
 
+	/**
+	 * Sets the background of the hole the ball is played on. This
+	 * computes the terrain of the hole and must be called whenever
+	 * the background changes.
+	 * @param background the rendered background of the hole, must not be <code>null</code>.
+	 * @param hole the hole, must not be <code>null</code>.
+	 */
+	public void setBackground(final Image background, final Hole hole) {
+		final int w = row.length;
+		for (int i = terrain.getHeight(), y = 0; y < i; y++) {
+			background.getRGB(row, 0, w, 0, y, w, 1);
+			terrain.setRow(y, row);
+		}
+		terrain.compute(hole);
+	}
+
+	/**
+	 * Returns the terrain of the hole the ball is played on.
+	 * @return the terrain, never <code>null</code>.
+	 */
+	public HoleTerrain getTerrain() {
+		return terrain;
+	}
+
 	/**
 	 * Returns the width of the ball.
 	 * @return the width of the ball.
@@ -89,34 +94,34 @@ public class Ball {
 
 	/**
 	 * Returns the x-position of the ball
-	 * @return the x-position of the ball
+	 * @return the x-position of the ball (in pixels)
 	 */
-	public double getX() {
-		return x;
+	public int getX() {
+		return Fixed.toInt(simulation.getX());
 	}
 
 	/**
 	 * Returns the y-position of the ball
-	 * @return the y-position of the ball
+	 * @return the y-position of the ball (in pixels)
 	 */
-	public double getY() {
-		return y;
+	public int getY() {
+		return Fixed.toInt(simulation.getY());
 	}
 	
 	/**
-	 * Returns the x-position of where the ball image starts to be displayed
+	 * Returns the x-position of where the ball image was displayed last
 	 * @return the x-position of the ball on the graphics
 	 */
 	public int getPixelX() {
-		return (int) x-3;
+		return paintX;
 	}
 
 	/**
-	 * Returns the y-position of where the ball image starts to be displayed
+	 * Returns the y-position of where the ball image was displayed last
 	 * @return the y-position of the ball on the graphics
 	 */
 	public int getPixelY() {
-		return (int) y-3;
+		return paintY;
 	}
 
 	/**
@@ -125,91 +130,49 @@ public class Ball {
 	 * @param yVal the y-position of the ball
 	 */
 	public void setPosition(final int xVal, final int yVal) {
-		x = xVal;
-		y = yVal;
-		vx = 0;
-		vy = 0;
-		holed = false;
+		simulation.setPosition(xVal, yVal);
+		lastX = simulation.getX();
+		lastY = simulation.getY();
+		paintX = xVal-3;
+		paintY = yVal-3;
 	}
 
 	/**
 	 * Adds the given speed vector to the ball.
-	 * @param deltaX the x component of the speed vector
-	 * @param deltaY the y component of the speed vector
+	 * @param deltaX the x component of the speed vector (fixed-point)
+	 * @param deltaY the y component of the speed vector (fixed-point)
 	 */
-	public void addSpeed(final double deltaX, final double deltaY) {
-		vx += deltaX;
-		vy += deltaY;
+	public void addSpeed(final int deltaX, final int deltaY) {
+		simulation.addSpeed(deltaX, deltaY);
+		// the shot starts where the ball is now
+		lastX = simulation.getX();
+		lastY = simulation.getY();
 	}
 
 	/**
-	 * Moves the ball and paints it into the graphics.
+	 * Moves the ball by one physics step. The physics is tuned
+	 * for {@link de.engehausen.mobile.crazygolf.GolfGameCanvas#FPS} steps per second.
+	 * @return the events of the step, see {@link Simulation#step(Terrain)}.
+	 */
+	public int move() {
+		lastX = simulation.getX();
+		lastY = simulation.getY();
+		return simulation.step(terrain);
+	}
+
+	/**
+	 * Paints the ball between its position before and after the last
+	 * physics step, restoring the background where it was painted before.
 	 * @param g the graphics to paint on, not <code>null</code>.
 	 * @param background the background image used to restore pixels, not <code>null</code>.
-	 * @param manager the game manager keeping track of all state, not <code>null</code>.
+	 * @param alpha the fraction of the last physics step to show (fixed-point, from zero to {@link Fixed#ONE})
 	 */
-	public void moveAndPaint(final Graphics g, final Image background, final GameManager manager) {
-		final Hole hole = manager.getCurrentHole();
+	public void paint(final Graphics g, final Image background, final int alpha) {
 		// restore old background
-		final int px = getPixelX(), py = getPixelY();
-		g.drawRegion(background, px, py, width, height, Sprite.TRANS_NONE, px, py, Graphics.TOP|Graphics.LEFT);
-		x += vx;
-		y += vy;
-		final double speed = vx*vx+vy*vy;
-		if (collisionCheck(background)) {
-			manager.playSound(GameManager.SOUND_HIT);
-			fitCollision(background);
-			performCollision(background);
-			if (collisionCheck(background)) {
-				fitCollision(background);			
-			}
-		} else {
-			final int type = getSurfaceType((int) x, (int) y, background);
-			if (type == Element.TYPE_NORMAL) {
-				if (speed < 0.42d) { 
-					vx = 0;
-					vy = 0;
-				}				
-			} else {
-				final VectorField field = hole.findVectorField((int) x, (int) y, type);
-				if (field != null) {
-					vx += field.getDeltaX();
-					vy += field.getDeltaY();
-				}
-			}
-		}
-		vx *= FRICTION;
-		vy *= FRICTION;
-		// check holes
-		final Rectangle[] rects = hole.getHoles();
-		for (int i = rects.length; i-->0; ) {
-			final double dx = (rects[i].cx-x), dy = (rects[i].cy-y);
-			double dist = dx*dx+dy*dy;
-			if (dist < 81) {
-				if (dist < 49 && speed < 16) {
-					if (dist < 9) {
-						x = rects[i].cx;
-						y = rects[i].cy;
-						vx = 0;
-						vy = 0;
-						holed = true;
-				    	manager.playSound(GameManager.SOUND_HOLE);
-					} else {
-						// directly aim at the center of the hole
-						dist = 2.5d*Math.sqrt(dist);
-						vx = (dx/dist);
-						vy = (dy/dist);						
-					}
-				} else {
-					if (dist != 0) {
-						dist = 2d*Math.sqrt(dist);
-						vx += (dx/dist);
-						vy += (dy/dist);
-					}
-				}
-			}
-		}
-		paint(g);
+		g.drawRegion(background, paintX, paintY, width, height, Sprite.TRANS_NONE, paintX, paintY, Graphics.TOP|Graphics.LEFT);
+		paintX = Fixed.toInt(lastX+Fixed.mul(simulation.getX()-lastX, alpha))-3;
+		paintY = Fixed.toInt(lastY+Fixed.mul(simulation.getY()-lastY, alpha))-3;
+		draw(g);
 	}
 
 	/**
@@ -217,124 +180,42 @@ public class Ball {
 	 * @param g the graphics to paint on, not <code>null</code>.
 	 */
 	public void paint(final Graphics g) {
-		// paint ball
-		g.drawRegion(elementsImage, 0, 0, element.getWidth(), element.getHeight(), Sprite.TRANS_NONE, getPixelX(), getPixelY(), Graphics.TOP|Graphics.LEFT);
+		paintX = getX()-3;
+		paintY = getY()-3;
+		draw(g);
 	}
 
 	/**
-	 * Returns whether to ball is moving or not.
-	 * @return whether to ball is moving or not.
+	 * Paints the ball where it was placed last.
+	 * @param g the graphics to paint on, not <code>null</code>.
 	 */
-	public boolean isMoving() {
-		return vx != 0 || vy != 0;
+	private void draw(final Graphics g) {
+		g.drawRegion(elementsImage, 0, 0, element.getWidth(), element.getHeight(), Sprite.TRANS_NONE, paintX, paintY, Graphics.TOP|Graphics.LEFT);
 	}
 
 	/**
-	 * Returns whether the ball is in a hole or not.
-	 * @return whether the ball is in a hole or not.
-	 */
-	public boolean isHoled() {
-		return holed;		
-	}
-	
-	/**
-	 * Check and act on collision.
-	 * @param background the image in which to check for collision
+	 * Returns the squared speed of the ball.
+	 * @return the squared speed of the ball (fixed-point)
 	 */
-	protected boolean collisionCheck(final Image background) {
-		for (int i = RING.length; i-->0; ) {
-			if (isMasked((int) (x+RING[i][0]), (int) (y+RING[i][1]), background)) {
-				return true; //NOPMD
-			}
-		}
-		return false;
+	public int getSquaredSpeed() {
+		final int vx = simulation.getSpeedX(), vy = simulation.getSpeedY();
+		return Fixed.mul(vx, vx)+Fixed.mul(vy, vy);
 	}
-	
-	/**
-	 * Fit the ball exactly against the "wall". The assumption
-	 * is that the ball was not colliding at the previous collision
-	 * and is at the time of calling the method.
-	 * @param background the image in which to check for collision
-	 */
-	protected void fitCollision(final Image background) {
-		double nvx, nvy;
-		if (Math.abs(vx)>Math.abs(vy)) {
-			nvx = vx/Math.abs(vx);
-			nvy = vy/Math.abs(vx);
-		} else {
-			nvx = vx/Math.abs(vy);
-			nvy = vy/Math.abs(vy);			
-		}
-		int max = 9; // emergency break out
-		do {
-			x -= nvx;
-			y -= nvy;
-		} while (max-->0 && collisionCheck(background));
-	}	
 
 	/**
-	 * Performs the actual collision.
-	 * @param background the image in which to check for collision
-	 */
-	protected void performCollision(final Image background) {
-		double nx = 0, ny = 0;
-		// determine collision normal vector
-		for (int i = 0; i < ANGLES.length; i++) {
-			final double rx = 4d*ANGLES[i][0];
-			final double ry = 4d*ANGLES[i][1];
-			if (isMasked((int) (rx+x), (int) (ry+y), background)) {
-				nx += ANGLES[i][0];
-				ny += ANGLES[i][1];
-			}
-		}
-		final double d = nx*nx+ny*ny;
-		if (d != 0) {
-			final double k = ((-vx)*nx+(-vy)*ny)/d;
-			vx = 0.75d*(2*k*nx+vx);
-			vy = 0.75d*(2*k*ny+vy);			
-			x += vx;
-			y += vy;
-		}
-	}
-	
-	/**
-	 * Returns the type of surface the ball is on.
-	 * @param tx x-position
-	 * @param ty y-position
-	 * @param background the background the ball is on
-	 * @return the surface type
+	 * Returns whether to ball is moving or not.
+	 * @return whether to ball is moving or not.
 	 */
-	private int getSurfaceType(final int tx, final int ty, final Image background) {
-		background.getRGB(pixel, 0, 1, tx, ty, 1, 1);
-		if (pixel[0] == colors[0]) {
-			return Element.TYPE_NORMAL;
-		} else if (pixel[0] == colors[1]) {
-			return Element.TYPE_DOWN;
-		} else if (pixel[0] == colors[2]) {
-			return Element.TYPE_UP;
-		}
-		return Element.TYPE_NORMAL;
+	public boolean isMoving() {
+		return simulation.isMoving();
 	}
 
 	/**
-	 * Returns whether the ball collides with the landscape or not
-	 * @param tx x-position
-	 * @param ty y-position
-	 * @param background the background the ball is on
-	 * @return <code>true</code> if the ball collides, <code>false</code> otherwise
+	 * Returns whether the ball is in a hole or not.
+	 * @return whether the ball is in a hole or not.
 	 */
-	private boolean isMasked(final int tx, final int ty, final Image background) { // TODO more efficient?
-		if (tx >=0 && tx < maxx && ty >=0 && ty < maxy) {
-			background.getRGB(pixel, 0, 1, tx, ty, 1, 1);
-			for (int i = 0; i < colors.length; i++) {
-				if (colors[i] == pixel[0]) {
-					return false;
-				}
-			}
-			return true;
-		} else {
-			return true;
-		}
+	public boolean isHoled() {
+		return simulation.isHoled();
 	}
-	
+
 }
@@ -0,0 +1,63 @@
+package de.engehausen.mobile.crazygolf.model;
+
+/**
+ * Packed collision mask of a hole. For each pixel of the screen
+ * one bit indicates whether the ball collides with the landscape
+ * at that position. The mask is computed once per hole from the
+ * material map, so that collision checks do not have to
+ * read pixels from the background image.
+ */
+public class CollisionMask {
+
+	private final int[] bits;
+	private final int width, height, stride;
+
+	/**
+	 * Creates the (empty) collision mask.
+	 * @param aWidth the width of the screen.
+	 * @param aHeight the height of the screen.
+	 */
+	public CollisionMask(final int aWidth, final int aHeight) {
+		width = aWidth;
+		height = aHeight;
+		stride = (aWidth+31)>>5;
+		bits = new int[stride*aHeight];
+	}
+
+	/**
+	 * Computes the mask from the materials of the hole: every
+	 * solid material causes a collision.
+	 * @param materials the material map of the hole, must not be <code>null</code>.
+	 */
+	public void compute(final MaterialMap materials) {
+		for (int y = 0; y < height; y++) {
+			final int offset = y*stride;
+			int word = 0;
+			for (int x = 0; x < width; x++) {
+				if (materials.getMaterial(x, y).solid) {
+					word |= 1<<(x&31);
+				}
+				if ((x&31) == 31 || x == width-1) {
+					bits[offset+(x>>5)] = word;
+					word = 0;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns whether the ball collides with the landscape at the given position.
+	 * Positions outside of the screen always collide.
+	 * @param x x-position
+	 * @param y y-position
+	 * @return <code>true</code> if the ball collides, <code>false</code> otherwise
+	 */
+	public boolean isMasked(final int x, final int y) {
+		if (x >= 0 && x < width && y >= 0 && y < height) {
+			return (bits[y*stride+(x>>5)] & (1<<(x&31))) != 0;
+		} else {
+			return true;
+		}
+	}
+
+}
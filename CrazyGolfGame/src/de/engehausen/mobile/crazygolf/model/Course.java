@@ -7,12 +7,19 @@ import java.util.Vector;
 import de.engehausen.mobile.crazygolf.Element;
 
 /**
- * A 18-hole course of the game.
+ * A 18-hole course of the game. A course listed in the course index
+ * (see {@link #readIndex(Element[], InputStream)}) reads a hole from its
+ * description only when the hole is needed. If the index does not fit
+ * the description (e.g. the course was changed without updating the
+ * index), the whole description is read instead.
  */
 public class Course {
 	
 	private final String courseName;
 	private final Hole[] holes;
+	private final Element[] elements;
+	private final String resource, backgrounds;
+	private int[] offsets;
 
 	/**
 	 * Creates a course.
@@ -22,6 +29,27 @@ public class Course {
 	protected Course(final String name, final Hole[] allHoles) { //NOPMD direct array storage is done intentionally
 		courseName = name;
 		holes = allHoles;
+		elements = null;
+		resource = null;
+		backgrounds = null;
+		offsets = null;
+	}
+
+	/**
+	 * Creates a course which reads its holes when they are needed.
+	 * @param name the name of the course
+	 * @param allElements the elements which are referenced in the course description
+	 * @param resourceName the name of the resource holding the course description
+	 * @param holeOffsets the offsets of the descriptions of the holes in the resource
+	 * @param backgroundPath the resource path of the images of the holes, may be <code>null</code>.
+	 */
+	protected Course(final String name, final Element[] allElements, final String resourceName, final int[] holeOffsets, final String backgroundPath) { //NOPMD direct array storage is done intentionally
+		courseName = name;
+		holes = new Hole[18];
+		elements = allElements;
+		resource = resourceName;
+		offsets = holeOffsets;
+		backgrounds = backgroundPath;
 	}
 
 	/**
@@ -33,13 +61,169 @@ public class Course {
 	}
 
 	/**
-	 * Returns all holes of the course.
+	 * Returns all holes of the course. All holes not read yet are read.
 	 * @return all holes of the course.
+	 * @throws IllegalStateException if the holes cannot be read
 	 */
-	public Hole[] getHoles() {
+	public synchronized Hole[] getHoles() {
+		for (int i = holes.length; i-->0 && offsets != null; ) {
+			getHole(i);
+		}
 		return holes; //NOPMD exposure of internal array okay for a small game
 	}
 
+	/**
+	 * Returns a hole of the course. The hole is read if it was not read yet.
+	 * @param index the index of the hole (0..17)
+	 * @return the hole, <code>null</code> if the course has no such hole.
+	 * @throws IllegalStateException if the hole cannot be read
+	 */
+	public synchronized Hole getHole(final int index) {
+		if (holes[index] == null && offsets != null && (index >= offsets.length || !readIndexedHole(index))) {
+			// the index does not fit the course description
+			readAllHoles();
+		}
+		return holes[index];
+	}
+
+	/**
+	 * Reads a hole at its offset given by the index. The offset must
+	 * point to the start of a line holding the par of the hole.
+	 * @param index the index of the hole
+	 * @return <code>true</code> if the hole was read, <code>false</code> if
+	 * the index does not fit the course description.
+	 */
+	private boolean readIndexedHole(final int index) {
+		final InputStream stream = openResource();
+		try {
+			for (long skip = offsets[index]-1; skip > 0; ) {
+				final long skipped = stream.skip(skip);
+				if (skipped <= 0) {
+					return false;
+				}
+				skip -= skipped;
+			}
+			if (stream.read() != '\n') {
+				return false;
+			}
+			final StringBuffer sb = new StringBuffer(64);
+			readLine(sb, stream);
+			if (sb.length() == 0) {
+				return false;
+			}
+			for (int i = sb.length(); i-->0; ) {
+				if (!Character.isDigit(sb.charAt(i))) {
+					return false;
+				}
+			}
+			holes[index] = readHole(elements, sb, stream, Integer.parseInt(sb.toString()), getBackgroundName(backgrounds, index));
+			return true;
+		} catch (IOException e) {
+			return false;
+		} catch (RuntimeException e) {
+			return false;
+		} finally {
+			close(stream);
+		}
+	}
+
+	/**
+	 * Reads all holes not read yet from the whole course description.
+	 * The offsets of the index are not used afterwards.
+	 * @throws IllegalStateException if the course description cannot be read
+	 */
+	private void readAllHoles() {
+		final InputStream stream = openResource();
+		try {
+			final Hole[] all = load(elements, stream, backgrounds).holes;
+			for (int i = holes.length; i-->0; ) {
+				if (holes[i] == null) {
+					holes[i] = all[i];
+				}
+			}
+			offsets = null; //NOPMD
+		} catch (IOException e) {
+			throw new IllegalStateException("cannot read "+resource);
+		} catch (RuntimeException e) {
+			throw new IllegalStateException("parse error in "+resource);
+		} finally {
+			close(stream);
+		}
+	}
+
+	/**
+	 * Opens the resource holding the course description.
+	 * @return the stream of the resource, never <code>null</code>.
+	 * @throws IllegalStateException if there is no such resource
+	 */
+	private InputStream openResource() {
+		final InputStream result = Course.class.getResourceAsStream(resource);
+		if (result == null) {
+			throw new IllegalStateException("cannot read "+resource);
+		}
+		return result;
+	}
+
+	/**
+	 * Closes a stream, ignoring errors.
+	 * @param stream the stream to close, must not be <code>null</code>.
+	 */
+	private static void close(final InputStream stream) {
+		try {
+			stream.close();
+		} catch (IOException e) { //NOPMD
+			// nothing we can do
+		}
+	}
+
+	/**
+	 * Reads the course index. Each line of the index describes a course
+	 * in this format:
+	 * <code>[file],[backgrounds],[number of holes],[offset-1],...,[offset-n],[name][NEWLINE]</code>
+	 * where [file] is the name of the resource holding the course description,
+	 * [backgrounds] the resource path of the images of the holes (may be empty,
+	 * see {@link #load(Element[], InputStream, String)}) and [offset-?] the
+	 * offsets of the descriptions of the holes in the resource. The name of
+	 * the course comes last, as it may contain commas. The holes are read
+	 * only when they are needed.
+	 * @param elements the elements which are referenced in the course descriptions.
+	 * @param stream the input stream holding the course index.
+	 * @return the courses, never <code>null</code>.
+	 * @throws IOException in case of error
+	 */
+	public static Course[] readIndex(final Element[] elements, final InputStream stream) throws IOException {
+		final StringBuffer sb = new StringBuffer(128);
+		final Vector list = new Vector(4);
+		while (stream.available() > 0) {
+			readLine(sb, stream);
+			if (sb.length() == 0) {
+				continue;
+			}
+			final String line = sb.toString();
+			try {
+				int start = 0, end = line.indexOf(',');
+				final String file = line.substring(start, end);
+				start = end+1;
+				end = line.indexOf(',', start);
+				final String backgrounds = end > start ? line.substring(start, end) : null;
+				start = end+1;
+				end = line.indexOf(',', start);
+				final int[] offsets = new int[Integer.parseInt(line.substring(start, end))];
+				for (int i = 0; i < offsets.length; i++) {
+					start = end+1;
+					end = line.indexOf(',', start);
+					offsets[i] = Integer.parseInt(line.substring(start, end));
+				}
+				list.addElement(new Course(line.substring(end+1), elements, file, offsets, backgrounds)); //NOPMD
+			} catch (RuntimeException e) {
+				throw new IOException("parse error"); //NOPMD no exception nesting on small device
+			}
+		}
+		final Course[] result = new Course[list.size()];
+		list.copyInto(result);
+		return result;
+	}
+
 	/**
 	 * Loads a course from its description, based on the given elements.
 	 * @param elements the elements which are referenced in the course description.
@@ -48,9 +232,25 @@ public class Course {
 	 * @throws IOException in case of error
 	 */
 	public static Course load(final Element[] elements, final InputStream stream) throws IOException {
+		return load(elements, stream, null);
+	}
+
+	/**
+	 * Loads a course from its description, based on the given elements.
+	 * The graphics of the holes are painted in advance; they are read from
+	 * the images <code>01.png</code> to <code>18.png</code> under the given
+	 * path.
+	 * @param elements the elements which are referenced in the course description.
+	 * @param stream the input stream holding the course description.
+	 * @param backgrounds the resource path of the images of the holes, ending with
+	 * a slash; <code>null</code> if the graphics must be painted from the elements.
+	 * @return the course, never <code>null</code>.
+	 * @throws IOException in case of error
+	 */
+	public static Course load(final Element[] elements, final InputStream stream, final String backgrounds) throws IOException {
 		final StringBuffer buffer = new StringBuffer(1024);
 		readLine(buffer, stream);
-		return new Course(buffer.toString(), readHoles(elements, buffer, stream));
+		return new Course(buffer.toString(), readHoles(elements, buffer, stream, backgrounds));
 	}
 
 	/**
@@ -58,17 +258,31 @@ public class Course {
 	 * @param elements the elements which are referenced in the hole description.
 	 * @param sb the string buffer used for string operations
 	 * @param stream the input stream holding the hole description.
+	 * @param backgrounds the resource path of the images of the holes, may be <code>null</code>.
 	 * @return the holes, never <code>null</code>.
 	 * @throws IOException in case of error
 	 */
-	private static Hole[] readHoles(final Element[] elements, final StringBuffer sb, final InputStream stream) throws IOException {
+	private static Hole[] readHoles(final Element[] elements, final StringBuffer sb, final InputStream stream, final String backgrounds) throws IOException {
 		final Hole[] result = new Hole[18];
 		for (int i = 0; i < result.length && stream.available() > 0; i++) {
 			readLine(sb, stream);
-			result[i] = readHole(elements, sb, stream, Integer.parseInt(sb.toString()));
+			result[i] = readHole(elements, sb, stream, Integer.parseInt(sb.toString()), getBackgroundName(backgrounds, i));
 		}
 		return result;
 	}
+
+	/**
+	 * Returns the name of the image of a hole.
+	 * @param backgrounds the resource path of the images of the holes, may be <code>null</code>.
+	 * @param index the index of the hole
+	 * @return the name of the image, <code>null</code> if there are no images.
+	 */
+	private static String getBackgroundName(final String backgrounds, final int index) {
+		if (backgrounds == null) {
+			return null; //NOPMD
+		}
+		return backgrounds+(index < 9 ? "0" : "")+(index+1)+".png";
+	}
 	
 	/**
 	 * Loads a hole from its description, based on the given elements.
@@ -76,10 +290,11 @@ public class Course {
 	 * @param sb the string buffer used for string operations
 	 * @param stream the input stream holding the hole description.
 	 * @param par the par of the hole
+	 * @param background the name of the image of the hole, may be <code>null</code>.
 	 * @return the hole, never <code>null</code>.
 	 * @throws IOException in case of error
 	 */
-	private static Hole readHole(final Element[] elements, final StringBuffer sb, final InputStream is, final int par) throws IOException {
+	private static Hole readHole(final Element[] elements, final StringBuffer sb, final InputStream is, final int par, final String background) throws IOException {
 		final Vector ops = new Vector(128);
 		while (is.available()>0) {
 			final int id = readInt(sb, is);
@@ -98,7 +313,7 @@ public class Course {
 		}
 		final ElementOp[] array = new ElementOp[ops.size()];
 		ops.copyInto(array);
-		return new Hole(elements, par, array);
+		return new Hole(elements, par, array, background);
 	}
 	
 	/**
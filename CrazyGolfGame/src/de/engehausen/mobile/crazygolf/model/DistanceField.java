@@ -0,0 +1,238 @@
+package de.engehausen.mobile.crazygolf.model;
+
+/**
+ * Signed distance field of a hole. For each pixel the field holds
+ * the (clamped) distance to the nearest pixel of the landscape;
+ * pixels inside the landscape hold the negative distance to the
+ * nearest free pixel. Distances are chamfer distances in units of
+ * {@link #UNIT} per pixel. Near the landscape the field also holds
+ * the quantised direction of the wall normal (pointing into the wall).
+ * The field is computed once per hole from the collision mask, so that
+ * collision tests and wall normals are single lookups.
+ */
+public class DistanceField {
+
+	/** the distance of two horizontally or vertically adjacent pixels */
+	public static final int UNIT = 3;
+	/** value indicating that there is no wall normal */
+	public static final int NO_NORMAL = -1;
+
+	private static final int DIAGONAL = 4; // chamfer distance of diagonally adjacent pixels
+	private static final int MAX = 127;
+	private static final int NEAR = 8*UNIT; // normals are only kept this close to the landscape
+
+	/** cos/sin of 64 normal directions (fixed-point) */
+	private static final int[][] DIRECTIONS = {
+		{ 65536, 0 }, { 65220, 6424 }, { 64277, 12785 }, { 62714, 19024 },
+		{ 60547, 25080 }, { 57798, 30893 }, { 54491, 36410 }, { 50660, 41576 },
+		{ 46341, 46341 }, { 41576, 50660 }, { 36410, 54491 }, { 30893, 57798 },
+		{ 25080, 60547 }, { 19024, 62714 }, { 12785, 64277 }, { 6424, 65220 },
+		{ 0, 65536 }, { -6424, 65220 }, { -12785, 64277 }, { -19024, 62714 },
+		{ -25080, 60547 }, { -30893, 57798 }, { -36410, 54491 }, { -41576, 50660 },
+		{ -46341, 46341 }, { -50660, 41576 }, { -54491, 36410 }, { -57798, 30893 },
+		{ -60547, 25080 }, { -62714, 19024 }, { -64277, 12785 }, { -65220, 6424 },
+		{ -65536, 0 }, { -65220, -6424 }, { -64277, -12785 }, { -62714, -19024 },
+		{ -60547, -25080 }, { -57798, -30893 }, { -54491, -36410 }, { -50660, -41576 },
+		{ -46341, -46341 }, { -41576, -50660 }, { -36410, -54491 }, { -30893, -57798 },
+		{ -25080, -60547 }, { -19024, -62714 }, { -12785, -64277 }, { -6424, -65220 },
+		{ 0, -65536 }, { 6424, -65220 }, { 12785, -64277 }, { 19024, -62714 },
+		{ 25080, -60547 }, { 30893, -57798 }, { 36410, -54491 }, { 41576, -50660 },
+		{ 46341, -46341 }, { 50660, -41576 }, { 54491, -36410 }, { 57798, -30893 },
+		{ 60547, -25080 }, { 62714, -19024 }, { 64277, -12785 }, { 65220, -6424 }
+	};
+	/** tangents of the boundaries between the directions of one octant (fixed-point) */
+	private static final int[] OCTANT_BOUNDS = {
+		3220, 9721, 16416, 23449, 30996, 39281, 48605, 59398
+	};
+
+	private final byte[] distances;
+	private final byte[] normals;
+	private final int width, height;
+
+	/**
+	 * Creates the (empty) distance field.
+	 * @param aWidth the width of the screen.
+	 * @param aHeight the height of the screen.
+	 */
+	public DistanceField(final int aWidth, final int aHeight) {
+		width = aWidth;
+		height = aHeight;
+		distances = new byte[aWidth*aHeight];
+		normals = new byte[aWidth*aHeight];
+	}
+
+	/**
+	 * Computes the field from the collision mask of the hole.
+	 * @param mask the collision mask, must not be <code>null</code>.
+	 */
+	public void compute(final CollisionMask mask) {
+		// distances of free pixels to the landscape...
+		sweep(mask, false);
+		// ...and of the landscape to free pixels
+		sweep(mask, true);
+		for (int i = distances.length; i-->0; ) {
+			if (mask.isMasked(i%width, i/width)) {
+				distances[i] = (byte) -distances[i];
+			}
+		}
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				final int i = y*width+x;
+				if (Math.abs(distances[i]) <= NEAR) {
+					// the normal points against the gradient of the distance
+					final int gx = get(x-1, y-1)+2*get(x-1, y)+get(x-1, y+1)-get(x+1, y-1)-2*get(x+1, y)-get(x+1, y+1);
+					final int gy = get(x-1, y-1)+2*get(x, y-1)+get(x+1, y-1)-get(x-1, y+1)-2*get(x, y+1)-get(x+1, y+1);
+					normals[i] = (byte) toDirection(gx, gy);
+				} else {
+					normals[i] = NO_NORMAL;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the distance to the landscape at the given position.
+	 * Positions outside of the screen are inside the landscape.
+	 * @param x x-position
+	 * @param y y-position
+	 * @return the distance in units of {@link #UNIT} per pixel, negative inside the landscape.
+	 */
+	public int getDistance(final int x, final int y) {
+		if (x >= 0 && x < width && y >= 0 && y < height) {
+			return distances[y*width+x];
+		} else {
+			return -MAX;
+		}
+	}
+
+	/**
+	 * Returns the wall normal at the given position.
+	 * @param x x-position
+	 * @param y y-position
+	 * @return the index of the normal direction, or {@link #NO_NORMAL}
+	 * if there is no wall nearby.
+	 */
+	public int getNormal(final int x, final int y) {
+		if (x >= 0 && x < width && y >= 0 && y < height) {
+			return normals[y*width+x];
+		} else {
+			return NO_NORMAL;
+		}
+	}
+
+	/**
+	 * Returns the x component of the given normal direction.
+	 * @param normal the index of the normal direction
+	 * @return the x component (fixed-point) of the unit normal
+	 */
+	public static int getNormalX(final int normal) {
+		return DIRECTIONS[normal][0];
+	}
+
+	/**
+	 * Returns the y component of the given normal direction.
+	 * @param normal the index of the normal direction
+	 * @return the y component (fixed-point) of the unit normal
+	 */
+	public static int getNormalY(final int normal) {
+		return DIRECTIONS[normal][1];
+	}
+
+	/**
+	 * Computes chamfer distances for either the free or the solid pixels.
+	 * Pixels of the other kind count as distance zero.
+	 * @param mask the collision mask
+	 * @param solid <code>true</code> to compute the distances of the solid pixels,
+	 * <code>false</code> for the free pixels.
+	 */
+	private void sweep(final CollisionMask mask, final boolean solid) {
+		for (int i = distances.length; i-->0; ) {
+			if (mask.isMasked(i%width, i/width) == solid) {
+				distances[i] = MAX;
+			}
+		}
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				if (mask.isMasked(x, y) == solid) {
+					int d = distances[y*width+x];
+					d = Math.min(d, get(mask, solid, x-1, y)+UNIT);
+					d = Math.min(d, get(mask, solid, x-1, y-1)+DIAGONAL);
+					d = Math.min(d, get(mask, solid, x, y-1)+UNIT);
+					d = Math.min(d, get(mask, solid, x+1, y-1)+DIAGONAL);
+					distances[y*width+x] = (byte) d;
+				}
+			}
+		}
+		for (int y = height; y-->0; ) {
+			for (int x = width; x-->0; ) {
+				if (mask.isMasked(x, y) == solid) {
+					int d = distances[y*width+x];
+					d = Math.min(d, get(mask, solid, x+1, y)+UNIT);
+					d = Math.min(d, get(mask, solid, x+1, y+1)+DIAGONAL);
+					d = Math.min(d, get(mask, solid, x, y+1)+UNIT);
+					d = Math.min(d, get(mask, solid, x-1, y+1)+DIAGONAL);
+					distances[y*width+x] = (byte) d;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the distance of a neighbour during a sweep.
+	 * @param mask the collision mask
+	 * @param solid the kind of pixels being swept
+	 * @param x x-position of the neighbour
+	 * @param y y-position of the neighbour
+	 * @return the distance of the neighbour
+	 */
+	private int get(final CollisionMask mask, final boolean solid, final int x, final int y) {
+		if (mask.isMasked(x, y) == solid) {
+			if (x >= 0 && x < width && y >= 0 && y < height) {
+				return distances[y*width+x];
+			} else {
+				return MAX; // outside is solid, but its distance is unknown
+			}
+		} else {
+			return 0;
+		}
+	}
+
+	/**
+	 * Returns the signed distance at the given position, clamping
+	 * the position to the screen.
+	 * @param x x-position
+	 * @param y y-position
+	 * @return the signed distance
+	 */
+	private int get(final int x, final int y) {
+		return distances[Math.min(Math.max(y, 0), height-1)*width+Math.min(Math.max(x, 0), width-1)];
+	}
+
+	/**
+	 * Quantises the given vector to one of the normal directions.
+	 * @param nx x component of the vector
+	 * @param ny y component of the vector
+	 * @return the index of the direction, or {@link #NO_NORMAL} for a zero vector.
+	 */
+	private static int toDirection(final int nx, final int ny) {
+		if (nx == 0 && ny == 0) {
+			return NO_NORMAL;
+		}
+		final int ax = Math.abs(nx), ay = Math.abs(ny);
+		final int t = Fixed.div(Math.min(ax, ay), Math.max(ax, ay));
+		int step = 0;
+		while (step < OCTANT_BOUNDS.length && t > OCTANT_BOUNDS[step]) {
+			step++;
+		}
+		// angle in the first quadrant (16 directions per quadrant)
+		int a = ax >= ay ? step : 16-step;
+		if (nx < 0) {
+			a = 32-a;
+		}
+		if (ny < 0) {
+			a = 64-a;
+		}
+		return a&63;
+	}
+
+}
@@ -0,0 +1,92 @@
+package de.engehausen.mobile.crazygolf.model;
+
+/**
+ * 16.16 fixed-point arithmetic. Many devices have no floating point
+ * unit and emulate <code>double</code> in software; integer math is
+ * faster there and gives the same results on every device.
+ */
+public final class Fixed {
+
+	private Fixed() {}
+
+	/** the number of fractional bits */
+	public static final int SHIFT = 16;
+
+	/** the value 1.0 */
+	public static final int ONE = 1<<SHIFT;
+
+	/** the value 0.5 */
+	public static final int HALF = ONE>>1;
+
+	/**
+	 * Converts an int to fixed-point.
+	 * @param value the int value
+	 * @return the fixed-point value
+	 */
+	public static int toFixed(final int value) {
+		return value<<SHIFT;
+	}
+
+	/**
+	 * Converts a double to fixed-point (rounding towards zero).
+	 * @param value the double value
+	 * @return the fixed-point value
+	 */
+	public static int toFixed(final double value) {
+		return (int) (value*ONE);
+	}
+
+	/**
+	 * Converts a fixed-point value to int (rounding towards negative infinity).
+	 * @param value the fixed-point value
+	 * @return the int value
+	 */
+	public static int toInt(final int value) {
+		return value>>SHIFT;
+	}
+
+	/**
+	 * Multiplies two fixed-point values.
+	 * @param a the first factor
+	 * @param b the second factor
+	 * @return the product
+	 */
+	public static int mul(final int a, final int b) {
+		return (int) (((long) a*b)>>SHIFT);
+	}
+
+	/**
+	 * Divides two fixed-point values.
+	 * @param a the dividend
+	 * @param b the divisor, must not be zero
+	 * @return the quotient
+	 */
+	public static int div(final int a, final int b) {
+		return (int) (((long) a<<SHIFT)/b);
+	}
+
+	/**
+	 * Computes the square root of a fixed-point value.
+	 * @param value the (non-negative) fixed-point value
+	 * @return the square root, rounded down
+	 */
+	public static int sqrt(final int value) {
+		long n = ((long) value)<<SHIFT;
+		long result = 0;
+		long bit = 1L<<46; // highest power of four for a 47 bit number
+		while (bit > n) {
+			bit >>= 2;
+		}
+		while (bit != 0) {
+			if (n >= result+bit) {
+				n -= result+bit;
+				result = (result>>1)+bit;
+			} else {
+				result >>= 1;
+			}
+			bit >>= 2;
+		}
+		return (int) result;
+	}
+
+}
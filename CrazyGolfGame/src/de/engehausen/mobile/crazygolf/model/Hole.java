@@ -14,8 +14,9 @@ public class Hole {
 	
 	private final int par;
 	private final ElementOp[] operations;
+	private final String background;
 	private final Rectangle[] startZones, holes;
-	private final VectorField[] ups, downs;
+	private final RectangleGrid startGrid, upGrid, downGrid;
 
 	/**
 	 * Creates the hole.
@@ -24,14 +25,27 @@ public class Hole {
 	 * @param ops the operations on the elements which make up the graphics of the course
 	 */
 	public Hole(final Element[] elements, final int parValue, final ElementOp[] ops) { //NOPMD direct array storage is done intentionally
+		this(elements, parValue, ops, null);
+	}
+
+	/**
+	 * Creates the hole.
+	 * @param elements the elements to use for building the hole
+	 * @param parValue the par of the hole
+	 * @param ops the operations on the elements which make up the graphics of the course
+	 * @param backgroundName the name of the image resource holding the graphics of the hole, may be <code>null</code>.
+	 */
+	public Hole(final Element[] elements, final int parValue, final ElementOp[] ops, final String backgroundName) { //NOPMD direct array storage is done intentionally
 		par = parValue;
 		operations = ops;
+		background = backgroundName;
 		startZones = determineStartZones(elements, ops);
+		startGrid = new RectangleGrid(startZones);
 		holes = determineHoles(elements, ops);
 		final Vector upVectors = new Vector(32), downVectors = new Vector(32);
 		determineVectors(elements, ops, upVectors, downVectors);
-		ups = toVectorField(upVectors);
-		downs = toVectorField(downVectors);
+		upGrid = new RectangleGrid(toVectorField(upVectors));
+		downGrid = new RectangleGrid(toVectorField(downVectors));
 	}
 
 	/**
@@ -114,6 +128,15 @@ public class Hole {
 		return operations; //NOPMD exposure of internal array okay for a small game
 	}
 
+	/**
+	 * Returns the name of the image resource holding the graphics of
+	 * the hole as painted in advance.
+	 * @return the name of the image resource, or <code>null</code> if the graphics must be painted from the operations.
+	 */
+	public String getBackgroundName() {
+		return background;
+	}
+
 	/**
 	 * Returns the start zones of the hole.
 	 * @return the start zones of the hole.
@@ -122,6 +145,16 @@ public class Hole {
 		return startZones; //NOPMD exposure of internal array okay for a small game
 	}
 
+	/**
+	 * Finds the start zone at the given coordinates.
+	 * @param x the x-position
+	 * @param y the y-position
+	 * @return the start zone, or <code>null</code>.
+	 */
+	public Rectangle findStartZone(final int x, final int y) {
+		return startGrid.find(x, y);
+	}
+
 	/**
 	 * Returns the holes of the "hole".
 	 * @return the holes of the "hole".
@@ -139,26 +172,10 @@ public class Hole {
 	 */
 	public VectorField findVectorField(final int x, final int y, final int type) {
 		if (type == Element.TYPE_DOWN) {
-			return findVectorField(downs, x, y);
+			return (VectorField) downGrid.find(x, y);
 		} else {
-			return findVectorField(ups, x, y);			
-		}
-	}
-
-	/**
-	 * Finds the vector field the given coordinates reside in.
-	 * @param field the fields to check
-	 * @param x the x-position
-	 * @param y the y-position
-	 * @return the field, or <code>null</code>.
-	 */
-	private VectorField findVectorField(final VectorField[] field, final int x, final int y) {
-		for (int i = field.length; i-->0; ) {
-			if (field[i].contains(x, y)) {
-				return field[i];
-			}
+			return (VectorField) upGrid.find(x, y);			
 		}
-		return null;
 	}
 
 	/**
@@ -0,0 +1,102 @@
+package de.engehausen.mobile.crazygolf.model;
+
+/**
+ * The terrain of a hole, made of the per-pixel maps computed from
+ * the rendered hole. The pixels of the hole are passed in row by
+ * row, so the terrain can be built from a device image as well as
+ * from any other source of ARGB pixels.
+ */
+public class HoleTerrain implements Terrain {
+
+	private final MaterialMap materials;
+	private final CollisionMask mask;
+	private final DistanceField field;
+	private final AccelerationMap accelerations;
+	private Hole hole;
+
+	/**
+	 * Creates the (empty) terrain.
+	 * @param nonCollisionColors the colors that do not cause a collision, must not be <code>null</code>.
+	 * @param aWidth the width of the hole.
+	 * @param aHeight the height of the hole.
+	 */
+	public HoleTerrain(final int[] nonCollisionColors, final int aWidth, final int aHeight) {
+		materials = new MaterialMap(nonCollisionColors, aWidth, aHeight);
+		mask = new CollisionMask(aWidth, aHeight);
+		field = new DistanceField(aWidth, aHeight);
+		accelerations = new AccelerationMap(aWidth, aHeight);
+	}
+
+	/**
+	 * Sets one row of pixels of the rendered hole.
+	 * @param y the row to set
+	 * @param pixels the pixels of the row (ARGB), must not be <code>null</code>.
+	 */
+	public void setRow(final int y, final int[] pixels) {
+		materials.setRow(y, pixels);
+	}
+
+	/**
+	 * Computes the terrain after all rows have been set.
+	 * @param aHole the hole, must not be <code>null</code>.
+	 */
+	public void compute(final Hole aHole) {
+		hole = aHole;
+		mask.compute(materials);
+		field.compute(mask);
+		accelerations.compute(aHole, materials);
+	}
+
+	/**
+	 * Returns the width of the terrain.
+	 * @return the width of the terrain.
+	 */
+	public int getWidth() {
+		return materials.getWidth();
+	}
+
+	/**
+	 * Returns the height of the terrain.
+	 * @return the height of the terrain.
+	 */
+	public int getHeight() {
+		return materials.getHeight();
+	}
+
+	// non-javadoc: see interface
+	public Material getMaterial(final int x, final int y) {
+		return materials.getMaterial(x, y);
+	}
+
+	// non-javadoc: see interface
+	public int getDistance(final int x, final int y) {
+		return field.getDistance(x, y);
+	}
+
+	// non-javadoc: see interface
+	public int getNormal(final int x, final int y) {
+		return field.getNormal(x, y);
+	}
+
+	// non-javadoc: see interface
+	public int getAcceleration(final int x, final int y) {
+		return accelerations.getEntry(x, y);
+	}
+
+	// non-javadoc: see interface
+	public int getAccelerationX(final int entry) {
+		return accelerations.getAccelerationX(entry);
+	}
+
+	// non-javadoc: see interface
+	public int getAccelerationY(final int entry) {
+		return accelerations.getAccelerationY(entry);
+	}
+
+	// non-javadoc: see interface
+	public Rectangle getCup(final int entry) {
+		final int cup = accelerations.getCup(entry);
+		return cup == AccelerationMap.NO_CUP ? null : hole.getHoles()[cup];
+	}
+
+}
@@ -0,0 +1,61 @@
+package de.engehausen.mobile.crazygolf.model;
+
+import de.engehausen.mobile.crazygolf.Element;
+
+/**
+ * The material of a surface the ball is rolling on or bouncing off.
+ * Each material defines its own friction and restitution. Materials
+ * are identified by the colors of the non-collision color image; to add
+ * a new surface (e.g. sand or ice) add its color to that image and
+ * a material to {@link #COLOR_MATERIALS} at the same index.
+ */
+public class Material {
+
+	/** the landscape, i.e. everything the ball collides with */
+	public static final Material WALL = new Material(0, Element.TYPE_NORMAL, 64684, 49152, true);
+	/** the regular surface of a hole */
+	public static final Material NORMAL = new Material(1, Element.TYPE_NORMAL, 64684, 49152, false);
+	/** surface moving the ball "down" */
+	public static final Material DOWN = new Material(2, Element.TYPE_DOWN, 64684, 49152, false);
+	/** surface moving the ball "up" */
+	public static final Material UP = new Material(3, Element.TYPE_UP, 64684, 49152, false);
+
+	/**
+	 * All materials, indexed by their ID.
+	 */
+	protected static final Material[] ALL = { WALL, NORMAL, DOWN, UP };
+
+	/**
+	 * The materials of the non-collision colors, by color index.
+	 * Colors without an entry here are {@link #NORMAL}.
+	 */
+	protected static final Material[] COLOR_MATERIALS = { NORMAL, DOWN, UP };
+
+	/** the id of the material */
+	public final int id;
+	/** the surface type, see {@link Element#TYPE_NORMAL} etc. */
+	public final int type;
+	/** factor applied to the speed of the ball each frame (fixed-point) */
+	public final int friction;
+	/** factor applied to the speed of the ball when bouncing off the material (fixed-point) */
+	public final int bounce;
+	/** indicates whether the ball collides with the material */
+	public final boolean solid;
+
+	/**
+	 * Creates the material.
+	 * @param anID the id of the material (index into {@link #ALL})
+	 * @param aType the surface type
+	 * @param aFriction the friction factor (fixed-point, 64684 is 0.987)
+	 * @param aBounce the restitution factor (fixed-point, 49152 is 0.75)
+	 * @param isSolid <code>true</code> if the ball collides with the material
+	 */
+	protected Material(final int anID, final int aType, final int aFriction, final int aBounce, final boolean isSolid) {
+		id = anID;
+		type = aType;
+		friction = aFriction;
+		bounce = aBounce;
+		solid = isSolid;
+	}
+
+}
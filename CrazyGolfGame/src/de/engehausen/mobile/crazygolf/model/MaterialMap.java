@@ -0,0 +1,97 @@
+package de.engehausen.mobile.crazygolf.model;
+
+/**
+ * Per-pixel map of the materials of a hole. The map holds one
+ * byte (the material ID) per pixel of the screen and is computed
+ * once per hole from the pixels of the rendered background, so that
+ * looking up the surface under the ball is a simple array access.
+ */
+public class MaterialMap {
+
+	private final int[] colors; // colors that are not considered a collision
+	private final byte[] map;
+	private final int width, height;
+
+	/**
+	 * Creates the (empty) material map.
+	 * @param nonCollisionColors the colors that do not cause a collision, must not be <code>null</code>.
+	 * @param aWidth the width of the screen.
+	 * @param aHeight the height of the screen.
+	 */
+	public MaterialMap(final int[] nonCollisionColors, final int aWidth, final int aHeight) { //NOPMD direct array storage is done intentionally
+		colors = nonCollisionColors;
+		width = aWidth;
+		height = aHeight;
+		map = new byte[aWidth*aHeight];
+	}
+
+	/**
+	 * Sets one row of the map from the given pixels.
+	 * @param y the row to set
+	 * @param pixels the pixels of the row (ARGB), must not be <code>null</code>.
+	 */
+	public void setRow(final int y, final int[] pixels) {
+		final int offset = y*width;
+		int last = ~pixels[0];
+		byte id = 0;
+		for (int x = 0; x < width; x++) {
+			final int p = pixels[x];
+			if (p != last) {
+				// the background has long runs of the same color
+				last = p;
+				id = (byte) toMaterial(p).id;
+			}
+			map[offset+x] = id;
+		}
+	}
+
+	/**
+	 * Returns the width of the map.
+	 * @return the width of the map.
+	 */
+	public int getWidth() {
+		return width;
+	}
+
+	/**
+	 * Returns the height of the map.
+	 * @return the height of the map.
+	 */
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * Returns the material at the given position. Positions outside
+	 * of the screen are {@link Material#WALL}.
+	 * @param x x-position
+	 * @param y y-position
+	 * @return the material, never <code>null</code>.
+	 */
+	public Material getMaterial(final int x, final int y) {
+		if (x >= 0 && x < width && y >= 0 && y < height) {
+			return Material.ALL[map[y*width+x]];
+		} else {
+			return Material.WALL;
+		}
+	}
+
+	/**
+	 * Maps a color of the background to its material.
+	 * @param color the color (ARGB)
+	 * @return the material, never <code>null</code>.
+	 */
+	private Material toMaterial(final int color) {
+		for (int i = colors.length; i-->0; ) {
+			if (colors[i] == color) {
+				if (i < Material.COLOR_MATERIALS.length) {
+					return Material.COLOR_MATERIALS[i];
+				} else {
+					return Material.NORMAL;
+				}
+			}
+		}
+		return Material.WALL;
+	}
+
+}
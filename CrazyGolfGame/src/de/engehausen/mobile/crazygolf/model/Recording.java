@@ -0,0 +1,206 @@
+package de.engehausen.mobile.crazygolf.model;
+
+/**
+ * The recording of a round: the course, the number of players and,
+ * in the order they were played, the ball placements and the strokes
+ * of all players. The physics of the ball is deterministic, so this is
+ * enough to play the round again; everything else (whose turn it is,
+ * when the next hole starts) follows from it. Each entry takes five
+ * bytes, so a whole round fits into a few hundred bytes.
+ * <p>The recording is read from the start while it is replayed and
+ * can be continued at its end.</p>
+ */
+public class Recording {
+
+	/** entry: there is no entry left */
+	public static final int END = 0;
+	/** entry: the ball was placed; the values are the position in pixels */
+	public static final int PLACEMENT = 1;
+	/** entry: the ball was hit; the values are the speed (fixed-point) */
+	public static final int STROKE = 2;
+
+	private static final int VERSION = 1;
+	private static final int ENTRY_SIZE = 5;
+	private static final int SPEED_SHIFT = 8; // speeds are stored in 1/256 pixels per step
+	private static final int MAX_SHORT = 32767;
+	private static final int MAX_NAME = 255; // characters of the course name stored
+
+	private final String course;
+	private final int players;
+	private byte[] data;
+	private int length;
+	private int position;
+
+	/**
+	 * Creates an empty recording. The name of the course is stored
+	 * with one byte per character (Latin-1) and up to 255 characters.
+	 * @param courseName the name of the course, must not be <code>null</code>.
+	 * @param playerCount the number of players
+	 */
+	public Recording(final String courseName, final int playerCount) {
+		course = courseName;
+		players = playerCount;
+		final int max = Math.min(MAX_NAME, courseName.length());
+		data = new byte[3+max+16*ENTRY_SIZE];
+		data[length++] = VERSION;
+		data[length++] = (byte) playerCount;
+		data[length++] = (byte) max;
+		for (int i = 0; i < max; i++) {
+			data[length++] = (byte) courseName.charAt(i);
+		}
+		position = length;
+	}
+
+	/**
+	 * Creates the recording from its binary form.
+	 * @param bytes the binary form, see {@link #toByteArray()}, must not be <code>null</code>.
+	 * @throws IllegalArgumentException if the data is not a recording
+	 */
+	public Recording(final byte[] bytes) {
+		if (bytes.length < 3 || bytes[0] != VERSION || bytes.length < 3+(bytes[2]&0xff)) {
+			throw new IllegalArgumentException();
+		}
+		data = bytes;
+		length = bytes.length;
+		players = bytes[1];
+		final int max = bytes[2]&0xff;
+		final StringBuffer sb = new StringBuffer(max);
+		for (int i = 0; i < max; i++) {
+			sb.append((char) (bytes[3+i]&0xff));
+		}
+		course = sb.toString();
+		position = 3+max;
+	}
+
+	/**
+	 * Returns the name of the course played.
+	 * @return the name of the course played.
+	 */
+	public String getCourseName() {
+		return course;
+	}
+
+	/**
+	 * Returns the number of players.
+	 * @return the number of players.
+	 */
+	public int getPlayerCount() {
+		return players;
+	}
+
+	/**
+	 * Adds a ball placement to the end of the recording.
+	 * @param x x-position in pixels
+	 * @param y y-position in pixels
+	 */
+	public void addPlacement(final int x, final int y) {
+		add(PLACEMENT, x, y);
+	}
+
+	/**
+	 * Adds a stroke to the end of the recording. The speed must
+	 * have been passed through {@link #quantize(int)}, otherwise the
+	 * stroke cannot be replayed exactly.
+	 * @param speedX the x component of the speed (fixed-point)
+	 * @param speedY the y component of the speed (fixed-point)
+	 */
+	public void addStroke(final int speedX, final int speedY) {
+		add(STROKE, speedX>>SPEED_SHIFT, speedY>>SPEED_SHIFT);
+	}
+
+	/**
+	 * Returns the speed as the recording stores it. The game must
+	 * play this speed, so that the stroke is replayed exactly.
+	 * @param speed a speed component (fixed-point)
+	 * @return the speed component as stored (fixed-point)
+	 */
+	public static int quantize(final int speed) {
+		final int result = (speed+(1<<(SPEED_SHIFT-1)))>>SPEED_SHIFT;
+		return Math.max(-MAX_SHORT, Math.min(MAX_SHORT, result))<<SPEED_SHIFT;
+	}
+
+	/**
+	 * Returns the type of the next entry to replay.
+	 * @return the type of the entry, {@link #END} if there is none.
+	 */
+	public int peek() {
+		if (position+ENTRY_SIZE > length) {
+			return END;
+		}
+		return data[position];
+	}
+
+	/**
+	 * Returns the first value of the next entry to replay.
+	 * @return the x-position of a placement or the x component of the speed of a stroke.
+	 */
+	public int getValueX() {
+		return getValue(position+1);
+	}
+
+	/**
+	 * Returns the second value of the next entry to replay.
+	 * @return the y-position of a placement or the y component of the speed of a stroke.
+	 */
+	public int getValueY() {
+		return getValue(position+3);
+	}
+
+	/**
+	 * Moves on to the next entry to replay.
+	 */
+	public void skip() {
+		position = Math.min(length, position+ENTRY_SIZE);
+	}
+
+	/**
+	 * Drops all entries not yet replayed; new entries are added
+	 * after the entries replayed so far.
+	 */
+	public void truncate() {
+		length = position;
+	}
+
+	/**
+	 * Returns the binary form of the recording.
+	 * @return the binary form of the recording, never <code>null</code>.
+	 */
+	public byte[] toByteArray() {
+		final byte[] result = new byte[length];
+		System.arraycopy(data, 0, result, 0, length);
+		return result;
+	}
+
+	/**
+	 * Adds an entry to the end of the recording.
+	 * @param type the type of the entry
+	 * @param a the first value
+	 * @param b the second value
+	 */
+	private void add(final int type, final int a, final int b) {
+		if (length+ENTRY_SIZE > data.length) {
+			final byte[] temp = new byte[2*data.length+ENTRY_SIZE];
+			System.arraycopy(data, 0, temp, 0, length);
+			data = temp;
+		}
+		data[length++] = (byte) type;
+		data[length++] = (byte) (a>>8);
+		data[length++] = (byte) a;
+		data[length++] = (byte) (b>>8);
+		data[length++] = (byte) b;
+	}
+
+	/**
+	 * Returns the value stored at the given offset.
+	 * @param offset the offset of the value
+	 * @return the value; speeds are converted back to fixed-point.
+	 */
+	private int getValue(final int offset) {
+		final int result = (short) ((data[offset]<<8)|(data[offset+1]&0xff));
+		if (data[position] == STROKE) {
+			return result<<SPEED_SHIFT;
+		}
+		return result;
+	}
+
+}
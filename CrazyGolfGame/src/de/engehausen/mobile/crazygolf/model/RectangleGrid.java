@@ -0,0 +1,102 @@
+package de.engehausen.mobile.crazygolf.model;
+
+/**
+ * Uniform grid of buckets over a set of rectangles. Each bucket holds
+ * the rectangles overlapping it, so finding the rectangle at a position
+ * only checks the few rectangles of one bucket, no matter how many
+ * rectangles there are.
+ */
+public class RectangleGrid {
+
+	private static final int SHIFT = 5; // buckets are 32x32 pixels
+
+	private final int minX, minY;
+	private final int columns, rows;
+	private final Rectangle[][] buckets;
+
+	/**
+	 * Creates the grid.
+	 * @param rects the rectangles to index, must not be <code>null</code>.
+	 * If rectangles overlap, the one with the highest index is found first.
+	 */
+	public RectangleGrid(final Rectangle[] rects) {
+		int x0 = Integer.MAX_VALUE, y0 = Integer.MAX_VALUE, x1 = Integer.MIN_VALUE, y1 = Integer.MIN_VALUE;
+		for (int i = rects.length; i-->0; ) {
+			x0 = Math.min(x0, rects[i].x);
+			y0 = Math.min(y0, rects[i].y);
+			x1 = Math.max(x1, rects[i].ex);
+			y1 = Math.max(y1, rects[i].ey);
+		}
+		if (x0 < x1 && y0 < y1) {
+			minX = x0;
+			minY = y0;
+			columns = ((x1-1-x0)>>SHIFT)+1;
+			rows = ((y1-1-y0)>>SHIFT)+1;
+		} else {
+			minX = 0;
+			minY = 0;
+			columns = 0;
+			rows = 0;
+		}
+		buckets = new Rectangle[columns*rows][];
+		// count the rectangles per bucket...
+		final int[] counts = new int[buckets.length];
+		for (int i = rects.length; i-->0; ) {
+			add(rects[i], counts, false);
+		}
+		for (int i = buckets.length; i-->0; ) {
+			if (counts[i] > 0) {
+				buckets[i] = new Rectangle[counts[i]];
+				counts[i] = 0;
+			}
+		}
+		// ...then fill them, keeping the search order of a linear scan
+		for (int i = rects.length; i-->0; ) {
+			add(rects[i], counts, true);
+		}
+	}
+
+	/**
+	 * Finds the rectangle containing the given position.
+	 * @param x the x-position
+	 * @param y the y-position
+	 * @return the rectangle, or <code>null</code>.
+	 */
+	public Rectangle find(final int x, final int y) {
+		final int column = (x-minX)>>SHIFT, row = (y-minY)>>SHIFT;
+		if (x >= minX && y >= minY && column < columns && row < rows) {
+			final Rectangle[] bucket = buckets[row*columns+column];
+			if (bucket != null) {
+				for (int i = 0; i < bucket.length; i++) {
+					if (bucket[i].contains(x, y)) {
+						return bucket[i];
+					}
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Adds the rectangle to all buckets it overlaps.
+	 * @param r the rectangle
+	 * @param counts the number of rectangles per bucket
+	 * @param store <code>true</code> to store the rectangle, <code>false</code> to only count it
+	 */
+	private void add(final Rectangle r, final int[] counts, final boolean store) {
+		if (r.ex > r.x && r.ey > r.y) {
+			final int c0 = (r.x-minX)>>SHIFT, c1 = (r.ex-1-minX)>>SHIFT;
+			final int r0 = (r.y-minY)>>SHIFT, r1 = (r.ey-1-minY)>>SHIFT;
+			for (int row = r0; row <= r1; row++) {
+				for (int column = c0; column <= c1; column++) {
+					final int idx = row*columns+column;
+					if (store) {
+						buckets[idx][counts[idx]] = r;
+					}
+					counts[idx]++;
+				}
+			}
+		}
+	}
+
+}
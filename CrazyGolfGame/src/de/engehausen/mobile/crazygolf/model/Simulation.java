@@ -0,0 +1,259 @@
+package de.engehausen.mobile.crazygolf.model;
+
+import de.engehausen.mobile.crazygolf.Element;
+
+/**
+ * The physics of the golf ball. The simulation holds the state of the
+ * ball and advances it step by step on a {@link Terrain}. It does not
+ * paint and does not depend on any display classes. Position and speed
+ * of the ball are kept in 16.16 fixed-point (see {@link Fixed}), so that
+ * the ball moves exactly the same on every device.
+ */
+public class Simulation {
+
+	/** event: the ball hit a wall during the step */
+	public static final int EVENT_HIT = 1;
+	/** event: the ball fell into a cup during the step */
+	public static final int EVENT_HOLED = 2;
+
+	/** the radius of the ball in units of {@link DistanceField#UNIT} */
+	public static final int RADIUS = 3*DistanceField.UNIT;
+
+	private static final int MAX_SPEED = Fixed.toFixed(120); // keeps the squared speed in range
+	private static final int STOP_SPEED = 27525; // 0.42
+	private static final int CAPTURE_SPEED = Fixed.toFixed(16);
+	private static final int CAPTURE_DIST = Fixed.toFixed(49), HOLED_DIST = Fixed.toFixed(9);
+	private static final int AIM_FACTOR = 5*Fixed.HALF; // 2.5
+
+	private int x, y;
+	private int vx, vy;
+	private boolean holed;
+
+	/**
+	 * Returns the power of a swipe of the player. Quick swipes
+	 * are stronger than slow ones.
+	 * @param time the duration of the swipe in milliseconds
+	 * @return the factor to apply to the length of the swipe to get the speed of the ball
+	 */
+	public static double getSwipePower(final long time) {
+		if (time > 24) {
+			return 24d/time;
+		} else {
+			return 1;
+		}
+	}
+
+	/**
+	 * Returns the x-position of the ball.
+	 * @return the x-position of the ball (fixed-point)
+	 */
+	public int getX() {
+		return x;
+	}
+
+	/**
+	 * Returns the y-position of the ball.
+	 * @return the y-position of the ball (fixed-point)
+	 */
+	public int getY() {
+		return y;
+	}
+
+	/**
+	 * Returns the x component of the speed of the ball.
+	 * @return the x component of the speed (fixed-point)
+	 */
+	public int getSpeedX() {
+		return vx;
+	}
+
+	/**
+	 * Returns the y component of the speed of the ball.
+	 * @return the y component of the speed (fixed-point)
+	 */
+	public int getSpeedY() {
+		return vy;
+	}
+
+	/**
+	 * Places the ball at rest at the given position.
+	 * @param xVal the x-position of the ball (in pixels)
+	 * @param yVal the y-position of the ball (in pixels)
+	 */
+	public void setPosition(final int xVal, final int yVal) {
+		x = Fixed.toFixed(xVal);
+		y = Fixed.toFixed(yVal);
+		vx = 0;
+		vy = 0;
+		holed = false;
+	}
+
+	/**
+	 * Places the ball at rest at the given exact position.
+	 * @param xVal the x-position of the ball (fixed-point)
+	 * @param yVal the y-position of the ball (fixed-point)
+	 */
+	public void setExactPosition(final int xVal, final int yVal) {
+		x = xVal;
+		y = yVal;
+		vx = 0;
+		vy = 0;
+		holed = false;
+	}
+
+	/**
+	 * Adds the given speed vector to the ball.
+	 * @param deltaX the x component of the speed vector (fixed-point)
+	 * @param deltaY the y component of the speed vector (fixed-point)
+	 */
+	public void addSpeed(final int deltaX, final int deltaY) {
+		vx = Math.max(-MAX_SPEED, Math.min(MAX_SPEED, vx+deltaX));
+		vy = Math.max(-MAX_SPEED, Math.min(MAX_SPEED, vy+deltaY));
+	}
+
+	/**
+	 * Returns whether to ball is moving or not.
+	 * @return whether to ball is moving or not.
+	 */
+	public boolean isMoving() {
+		return vx != 0 || vy != 0;
+	}
+
+	/**
+	 * Returns whether the ball is in a hole or not.
+	 * @return whether the ball is in a hole or not.
+	 */
+	public boolean isHoled() {
+		return holed;
+	}
+
+	/**
+	 * Moves the ball by one physics step.
+	 * @param terrain the terrain the ball is on, must not be <code>null</code>.
+	 * @return the events of the step, a combination of {@link #EVENT_HIT} and {@link #EVENT_HOLED}.
+	 */
+	public int step(final Terrain terrain) {
+		int events = 0;
+		final int speed = Fixed.mul(vx, vx)+Fixed.mul(vy, vy);
+		final Material surface;
+		if (sweep(terrain, speed)) {
+			events |= EVENT_HIT;
+			performCollision(terrain);
+			surface = terrain.getMaterial(Fixed.toInt(x), Fixed.toInt(y));
+		} else {
+			surface = terrain.getMaterial(Fixed.toInt(x), Fixed.toInt(y));
+			if (surface.type == Element.TYPE_NORMAL && speed < STOP_SPEED) {
+				vx = 0;
+				vy = 0;
+			}
+		}
+		vx = Fixed.mul(vx, surface.friction);
+		vy = Fixed.mul(vy, surface.friction);
+		// slopes and the pull of the cups
+		final int entry = terrain.getAcceleration(Fixed.toInt(x), Fixed.toInt(y));
+		final Rectangle cup = terrain.getCup(entry);
+		if (cup == null || !capture(cup, speed)) {
+			vx += terrain.getAccelerationX(entry);
+			vy += terrain.getAccelerationY(entry);
+		} else if (holed) {
+			events |= EVENT_HOLED;
+		}
+		return events;
+	}
+
+	/**
+	 * Captures the ball by the given cup if the ball is close and slow enough.
+	 * @param cup the cup the ball is close to, must not be <code>null</code>.
+	 * @param speed the squared speed of the ball
+	 * @return <code>true</code> if the ball was captured, <code>false</code> otherwise.
+	 */
+	private boolean capture(final Rectangle cup, final int speed) {
+		if (speed >= CAPTURE_SPEED) {
+			return false; //NOPMD
+		}
+		// the ball is in range of the cup, so the squared distance cannot overflow
+		final int dx = Fixed.toFixed(cup.cx)-x, dy = Fixed.toFixed(cup.cy)-y;
+		int dist = Fixed.mul(dx, dx)+Fixed.mul(dy, dy);
+		if (dist >= CAPTURE_DIST) {
+			return false; //NOPMD
+		}
+		if (dist < HOLED_DIST) {
+			x = Fixed.toFixed(cup.cx);
+			y = Fixed.toFixed(cup.cy);
+			vx = 0;
+			vy = 0;
+			holed = true;
+		} else {
+			// directly aim at the center of the hole
+			dist = Fixed.mul(AIM_FACTOR, Fixed.sqrt(dist));
+			vx = Fixed.div(dx, dist);
+			vy = Fixed.div(dy, dist);
+		}
+		return true;
+	}
+
+	/**
+	 * Moves the ball along its speed vector up to the first contact
+	 * with the landscape. The motion segment is traced in steps of the
+	 * free distance around the ball, so that no wall is skipped even at
+	 * high speed. Contacts the ball is moving away from are ignored.
+	 * @param terrain the terrain the ball is on
+	 * @param speed the squared speed of the ball
+	 * @return <code>true</code> if the ball hit the landscape, <code>false</code> otherwise.
+	 */
+	protected boolean sweep(final Terrain terrain, final int speed) {
+		final int length = Fixed.sqrt(speed);
+		if (length == 0) {
+			return false; //NOPMD
+		}
+		final int dx = Fixed.div(vx, length), dy = Fixed.div(vy, length);
+		int t = 0;
+		while (true) {
+			final int px = x+Fixed.mul(dx, t), py = y+Fixed.mul(dy, t);
+			final int free = terrain.getDistance(Fixed.toInt(px), Fixed.toInt(py))-RADIUS;
+			if ((free <= 0 && isApproaching(terrain, px, py)) || t == length) {
+				x = px;
+				y = py;
+				return free <= 0; //NOPMD
+			}
+			// chamfer distances may overestimate the true distance slightly
+			t = Math.min(length, t+Math.max(Fixed.HALF, Fixed.toFixed(Math.max(free, 0))/(DistanceField.UNIT+1)));
+		}
+	}
+
+	/**
+	 * Checks whether the ball is moving towards the wall at the given position.
+	 * @param terrain the terrain the ball is on
+	 * @param px x-position (fixed-point)
+	 * @param py y-position (fixed-point)
+	 * @return <code>true</code> if the ball is moving towards the wall.
+	 */
+	private boolean isApproaching(final Terrain terrain, final int px, final int py) {
+		final int normal = terrain.getNormal(Fixed.toInt(px), Fixed.toInt(py));
+		if (normal == DistanceField.NO_NORMAL) {
+			return true; //NOPMD
+		}
+		return Fixed.mul(vx, DistanceField.getNormalX(normal))+Fixed.mul(vy, DistanceField.getNormalY(normal)) > 0;
+	}
+
+	/**
+	 * Performs the actual collision.
+	 * @param terrain the terrain the ball is on
+	 */
+	protected void performCollision(final Terrain terrain) {
+		// the collision normal vector is precomputed
+		final int normal = terrain.getNormal(Fixed.toInt(x), Fixed.toInt(y));
+		if (normal != DistanceField.NO_NORMAL) {
+			final int nx = DistanceField.getNormalX(normal), ny = DistanceField.getNormalY(normal);
+			Material wall = terrain.getMaterial(Fixed.toInt(4*nx+x), Fixed.toInt(4*ny+y));
+			if (!wall.solid) {
+				wall = Material.WALL;
+			}
+			final int d = Fixed.mul(nx, nx)+Fixed.mul(ny, ny);
+			final int k = Fixed.div(Fixed.mul(-vx, nx)+Fixed.mul(-vy, ny), d);
+			vx = Fixed.mul(wall.bounce, 2*Fixed.mul(k, nx)+vx);
+			vy = Fixed.mul(wall.bounce, 2*Fixed.mul(k, ny)+vy);
+		}
+	}
+
+}
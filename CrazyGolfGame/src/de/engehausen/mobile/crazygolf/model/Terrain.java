@@ -0,0 +1,67 @@
+package de.engehausen.mobile.crazygolf.model;
+
+/**
+ * The terrain a ball is simulated on. The terrain answers all questions
+ * the physics of the ball asks about a position: the surface, the
+ * distance to and the direction of walls and the forces acting on
+ * the ball. It does not depend on any display classes, so shots can be
+ * simulated without a device.
+ */
+public interface Terrain {
+
+	/**
+	 * Returns the material at the given position. Positions outside
+	 * of the terrain are {@link Material#WALL}.
+	 * @param x x-position
+	 * @param y y-position
+	 * @return the material, never <code>null</code>.
+	 */
+	Material getMaterial(int x, int y);
+
+	/**
+	 * Returns the distance to the nearest wall at the given position.
+	 * @param x x-position
+	 * @param y y-position
+	 * @return the distance in units of {@link DistanceField#UNIT} per pixel, negative inside walls.
+	 */
+	int getDistance(int x, int y);
+
+	/**
+	 * Returns the wall normal at the given position.
+	 * @param x x-position
+	 * @param y y-position
+	 * @return the index of the normal direction (see {@link DistanceField#getNormalX(int)}),
+	 * or {@link DistanceField#NO_NORMAL} if there is no wall nearby.
+	 */
+	int getNormal(int x, int y);
+
+	/**
+	 * Returns the acceleration entry at the given position.
+	 * @param x x-position
+	 * @param y y-position
+	 * @return the entry to pass to {@link #getAccelerationX(int)} etc.
+	 */
+	int getAcceleration(int x, int y);
+
+	/**
+	 * Returns the x component of the acceleration of the given entry.
+	 * @param entry the acceleration entry
+	 * @return the x component of the acceleration (fixed-point)
+	 */
+	int getAccelerationX(int entry);
+
+	/**
+	 * Returns the y component of the acceleration of the given entry.
+	 * @param entry the acceleration entry
+	 * @return the y component of the acceleration (fixed-point)
+	 */
+	int getAccelerationY(int entry);
+
+	/**
+	 * Returns the cup in range of the given entry.
+	 * @param entry the acceleration entry
+	 * @return the cup, or <code>null</code>.
+	 */
+	Rectangle getCup(int entry);
+
+}
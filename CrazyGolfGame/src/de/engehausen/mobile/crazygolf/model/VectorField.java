@@ -7,7 +7,7 @@ package de.engehausen.mobile.crazygolf.model;
  */
 public class VectorField extends Rectangle {
 	
-	private final double deltaX, deltaY;
+	private final int deltaX, deltaY;
 
 	/**
 	 * Creates the rectangle.
@@ -24,23 +24,23 @@ public class VectorField extends Rectangle {
 	 */
 	public VectorField(final int anID, final int x, final int y, final int flags, final int vectorFlags, final int w, final int h, final double dx, final double dy) {
 		super(anID, x, y, flags, vectorFlags, w, h);
-		deltaX = dx*parseFlag(1, vectorFlags);
-		deltaY = dy*parseFlag(2, vectorFlags);
+		deltaX = Fixed.toFixed(dx)*parseFlag(1, vectorFlags);
+		deltaY = Fixed.toFixed(dy)*parseFlag(2, vectorFlags);
 	}
 
 	/**
 	 * Get x delta.
-	 * @return x delta.
+	 * @return x delta (fixed-point).
 	 */
-	public double getDeltaX() {
+	public int getDeltaX() {
 		return deltaX;
 	}
 
 	/**
 	 * Get y delta.
-	 * @return y delta.
+	 * @return y delta (fixed-point).
 	 */
-	public double getDeltaY() {
+	public int getDeltaY() {
 		return deltaY;
 	}
 	
@@ -50,7 +50,7 @@ public class VectorField extends Rectangle {
 	 * @param flag the flag to check on
 	 * @return -1 or 1
 	 */
-	private double parseFlag(final int bit, final int flag) {
+	private int parseFlag(final int bit, final int flag) {
 		return ((flag&bit)==bit)?-1:1;
 	}
 
@@ -0,0 +1,190 @@
+package de.engehausen.mobile.crazygolf.renderer;
+
+import javax.microedition.lcdui.Graphics;
+import javax.microedition.lcdui.Image;
+import javax.microedition.lcdui.game.Sprite;
+
+import de.engehausen.mobile.crazygolf.Area;
+import de.engehausen.mobile.crazygolf.model.Ball;
+import de.engehausen.mobile.crazygolf.model.Fixed;
+import de.engehausen.mobile.crazygolf.model.Simulation;
+
+/**
+ * Shows the predicted path of the ball for the current aim as a
+ * trail of dots, up to the first few bounces. The path is simulated
+ * on the terrain of the ball, a slice per frame within a small time
+ * budget, so that the frame rate does not drop. The path is kept while
+ * the aim does not change noticeably; only dots added or removed are
+ * painted.
+ */
+public class AimPreview {
+
+	private static final int MAX_BOUNCES = 3;
+	private static final int MAX_STEPS = 300; // steps of the path at most
+	private static final int STEPS_PER_DOT = 3;
+	private static final int MAX_DOTS = MAX_STEPS/STEPS_PER_DOT;
+	private static final int SLICE = 8; // steps between checks of the time budget
+	private static final long BUDGET = 5; // milliseconds per frame for the path
+	private static final int TOLERANCE = Fixed.HALF; // speed difference not worth a new path
+	private static final int DOT = 2; // size of a dot in pixels
+	private static final int COLOR = 0xffffff;
+
+	private final Simulation simulation;
+	private final int[] dotsX, dotsY;
+	private int dotCount, shownCount; // dots of the path, dots of the path painted
+	private final int[] oldX, oldY;
+	private int oldCount; // dots of a previous path still painted
+	private int speedX, speedY; // the aim of the path
+	private int steps, bounces;
+	private boolean active, done;
+	private int requestX, requestY;
+	private boolean requested;
+
+	/**
+	 * Creates the preview.
+	 */
+	public AimPreview() {
+		simulation = new Simulation();
+		dotsX = new int[MAX_DOTS];
+		dotsY = new int[MAX_DOTS];
+		oldX = new int[MAX_DOTS];
+		oldY = new int[MAX_DOTS];
+	}
+
+	/**
+	 * Sets the aim to show the path for. Can be called from any thread.
+	 * @param aSpeedX the x component of the speed of the shot (fixed-point)
+	 * @param aSpeedY the y component of the speed of the shot (fixed-point)
+	 */
+	public synchronized void aim(final int aSpeedX, final int aSpeedY) {
+		requestX = aSpeedX;
+		requestY = aSpeedY;
+		requested = true;
+	}
+
+	/**
+	 * Removes the path. Can be called from any thread.
+	 */
+	public synchronized void clear() {
+		requested = false;
+	}
+
+	/**
+	 * Indicates that all dots were painted over, so that the whole
+	 * path is painted again.
+	 */
+	public void invalidate() {
+		shownCount = 0;
+		oldCount = 0;
+	}
+
+	/**
+	 * Indicates if the path must be painted or computed further.
+	 * @return <code>true</code> if {@link #paint(Graphics, Image, Ball, Area)} has something to do.
+	 */
+	public synchronized boolean needsRepaint() {
+		if (requested) {
+			return !active || !done || shownCount < dotCount || oldCount > 0 || Math.abs(requestX-speedX) > TOLERANCE || Math.abs(requestY-speedY) > TOLERANCE;
+		}
+		return active || oldCount > 0;
+	}
+
+	/**
+	 * Computes the next slice of the path and paints the dots which
+	 * changed. The ball must be painted afterwards, as the dots
+	 * may overlap it.
+	 * @param g the graphics to paint on, must not be <code>null</code>.
+	 * @param background the background used to remove dots, must not be <code>null</code>.
+	 * @param ball the ball at rest, must not be <code>null</code>.
+	 * @param area the area to add the modified pixels to, must not be <code>null</code>.
+	 */
+	public void paint(final Graphics g, final Image background, final Ball ball, final Area area) {
+		final boolean show;
+		final int x, y;
+		synchronized (this) {
+			show = requested;
+			x = requestX;
+			y = requestY;
+		}
+		if (!show) {
+			if (active) {
+				retire();
+			}
+		} else if (!active || Math.abs(x-speedX) > TOLERANCE || Math.abs(y-speedY) > TOLERANCE) {
+			retire();
+			start(ball, x, y);
+		}
+		// remove the dots of previous paths first
+		for (int i = oldCount; i-->0; ) {
+			g.drawRegion(background, oldX[i], oldY[i], DOT, DOT, Sprite.TRANS_NONE, oldX[i], oldY[i], Graphics.TOP|Graphics.LEFT);
+			area.addArea(oldX[i], oldY[i], DOT, DOT);
+		}
+		oldCount = 0;
+		if (active) {
+			if (!done) {
+				compute(ball);
+			}
+			g.setColor(COLOR);
+			for (int i = shownCount; i < dotCount; i++) {
+				g.fillRect(dotsX[i], dotsY[i], DOT, DOT);
+				area.addArea(dotsX[i], dotsY[i], DOT, DOT);
+			}
+			shownCount = dotCount;
+		}
+	}
+
+	/**
+	 * Starts a new path from the ball.
+	 * @param ball the ball at rest
+	 * @param aSpeedX the x component of the speed of the shot (fixed-point)
+	 * @param aSpeedY the y component of the speed of the shot (fixed-point)
+	 */
+	private void start(final Ball ball, final int aSpeedX, final int aSpeedY) {
+		speedX = aSpeedX;
+		speedY = aSpeedY;
+		simulation.setPosition(ball.getX(), ball.getY());
+		simulation.addSpeed(aSpeedX, aSpeedY);
+		dotCount = 0;
+		shownCount = 0;
+		steps = 0;
+		bounces = 0;
+		active = true;
+		done = false;
+	}
+
+	/**
+	 * Marks the dots of the current path for removal.
+	 */
+	private void retire() {
+		for (int i = 0; i < shownCount; i++) {
+			oldX[oldCount] = dotsX[i];
+			oldY[oldCount++] = dotsY[i];
+		}
+		shownCount = 0;
+		dotCount = 0;
+		active = false;
+	}
+
+	/**
+	 * Simulates the path further until the time budget of the frame
+	 * is used up.
+	 * @param ball the ball the path is computed for
+	 */
+	private void compute(final Ball ball) {
+		final long end = System.currentTimeMillis()+BUDGET;
+		do {
+			for (int i = SLICE; i-->0 && !done; ) {
+				final int events = simulation.step(ball.getTerrain());
+				if ((events&Simulation.EVENT_HIT) != 0) {
+					bounces++;
+				}
+				if (++steps%STEPS_PER_DOT == 0) {
+					dotsX[dotCount] = Fixed.toInt(simulation.getX())-DOT/2;
+					dotsY[dotCount++] = Fixed.toInt(simulation.getY())-DOT/2;
+				}
+				done = !simulation.isMoving() || bounces > MAX_BOUNCES || steps == MAX_STEPS;
+			}
+		} while (!done && System.currentTimeMillis() < end);
+	}
+
+}
@@ -7,18 +7,25 @@ import de.engehausen.mobile.crazygolf.Element;
 import de.engehausen.mobile.crazygolf.Font;
 import de.engehausen.mobile.crazygolf.FrameRenderer;
 import de.engehausen.mobile.crazygolf.GameManager;
+import de.engehausen.mobile.crazygolf.GolfGameCanvas;
+import de.engehausen.mobile.crazygolf.model.Recording;
 import de.engehausen.mobile.crazygolf.model.Rectangle;
 
 /**
  * A frame renderer which lets the user place the ball in one
- * of the starting zones of the hole.
+ * of the starting zones of the hole. When a round is replayed,
+ * the ball is placed where the recording says.
  */
 public class BallPlaceRenderer implements FrameRenderer {
+
+	private static final long BLINK = 10*GolfGameCanvas.FRAME_WAIT; // milliseconds between blinks of the zones
 	
 	private int frameCounter;
+	private long lastBlink;
 	private final GameManager manager;
 	private final Font font;
 	private final HolePainter elementRenderer;
+	private final Area area;
 	private String text;
 	private String par;
 	private Rectangle[] zones;
@@ -33,6 +40,7 @@ public class BallPlaceRenderer implements FrameRenderer {
 		manager = aManager;
 		font = aFont;
 		elementRenderer = aHoleRenderer;
+		area = new Area();
 	}
 
 	/**
@@ -42,37 +50,64 @@ public class BallPlaceRenderer implements FrameRenderer {
 	 * playing, <code>false</code>: click was not handled.
 	 */
 	public boolean handleClick(final int x, final int y) {
-		for (int i = zones.length; i-->0; ) {
-			if (zones[i].contains(x, y)) {
-				manager.getBall().setPosition(x, y);
-				manager.setState(GameManager.STATE_PLAY);
-				break;	
-			}
+		if (!manager.isReplaying() && manager.getCurrentHole().findStartZone(x, y) != null) {
+			manager.placeBall(x, y);
 		}
 		return false;
 	}
 
 	// non-javadoc: see interface
 	public boolean needsRepaint() {
-		frameCounter++;
-		return frameCounter == 1 || (frameCounter%10)==0;
+		final long now = System.currentTimeMillis();
+		if (frameCounter == 0 || now-lastBlink >= BLINK) {
+			frameCounter++;
+			lastBlink = now;
+			return true;
+		}
+		return false;
+	}
+
+	// non-javadoc: see interface
+	public long getFrameDelay() {
+		return Math.max(0, lastBlink+BLINK-System.currentTimeMillis());
 	}
 	
 	// non-javadoc: see interface
 	public Area paint(final Graphics graphics) {
-		if (frameCounter == 1) {
+		area.reset();
+		if (frameCounter > 1 && manager.isReplaying()) {
+			final Recording recording = manager.getRecording();
+			if (recording.peek() == Recording.PLACEMENT) {
+				final int x = recording.getValueX(), y = recording.getValueY();
+				recording.skip();
+				manager.placeBall(x, y);
+				return area;
+			}
+			// the recording ends here, the player takes over
+			manager.stopReplay();
+		}
+		final boolean full = frameCounter == 1;
+		if (full) {
 			graphics.drawImage(manager.getCurrentBackground(), 0, 0, Graphics.TOP|Graphics.LEFT);			
 		} else {
-			final int idx = (frameCounter>>1)&0x1;
+			final int idx = frameCounter&0x1;
 			for (int i = zones.length; i-->0; ) {
 				final Rectangle op = zones[i];
 				final Element e = manager.getElement(idx+op.id);
 				elementRenderer.renderElement(graphics, e, op);
+				area.addArea(op.x, op.y, e.getWidth(), e.getHeight());
 			}
 		}
 		font.drawStringCentered(text, graphics, 256, Font.ORIENTATION_VERTICAL);
+		font.addStringCenteredArea(text, 256, Font.ORIENTATION_VERTICAL, area);
 		font.drawStringCentered(par, graphics, 256 - font.getCharHeight(), Font.ORIENTATION_VERTICAL);
-		return null; // TODO this *could* be more detailed
+		font.addStringCenteredArea(par, 256 - font.getCharHeight(), Font.ORIENTATION_VERTICAL, area);
+		return full ? null : area;
+	}
+
+	// non-javadoc: see interface
+	public void repaintAll() {
+		frameCounter = 0;
 	}
 
 	// non-javadoc: see interface
@@ -92,4 +127,9 @@ public class BallPlaceRenderer implements FrameRenderer {
 		// ignore
 	}
 
+	// non-javadoc: see interface
+	public void handleDrag(final int sx, final int sy, final int x, final int y, final long time) {
+		// ignore
+	}
+
 }
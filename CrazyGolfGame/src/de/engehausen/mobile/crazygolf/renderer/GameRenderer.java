@@ -6,16 +6,23 @@ import javax.microedition.lcdui.Image;
 import de.engehausen.mobile.crazygolf.Area;
 import de.engehausen.mobile.crazygolf.Font;
 import de.engehausen.mobile.crazygolf.FrameRenderer;
+import de.engehausen.mobile.crazygolf.FrameStats;
 import de.engehausen.mobile.crazygolf.GameManager;
 import de.engehausen.mobile.crazygolf.GolfGameCanvas;
 import de.engehausen.mobile.crazygolf.Message;
 import de.engehausen.mobile.crazygolf.model.Ball;
+import de.engehausen.mobile.crazygolf.model.Fixed;
 import de.engehausen.mobile.crazygolf.model.Hole;
+import de.engehausen.mobile.crazygolf.model.Recording;
 import de.engehausen.mobile.crazygolf.model.Rectangle;
+import de.engehausen.mobile.crazygolf.model.Simulation;
 
 /**
  * Main game frame renderer. This renderer shows the hole and the
- * moving ball on the hole.
+ * moving ball on the hole. When a round is replayed, the strokes
+ * are taken from the recording and each stroke is simulated at once;
+ * only the ball at rest is shown. While the player swipes towards the
+ * ball, the path the ball would take is previewed.
  */
 public class GameRenderer implements FrameRenderer {
 
@@ -29,15 +36,24 @@ public class GameRenderer implements FrameRenderer {
 		{ "double bogey!", "man! double bogey..." },
 		{ "excellent!", "fantastic!" }
 	};
+	private static final long TICK = 1000L/GolfGameCanvas.FPS; // duration of one physics step
+	private static final int SLOW = Fixed.ONE, VERY_SLOW = Fixed.ONE/4; // squared speeds of a slowly rolling ball
+	private static final int MAX_STEPS = 4; // physics steps to catch up with per frame at most
+	private static final int REPLAY_STEPS = 2000; // physics steps per frame at most when replaying
+	private static final int REPLAY_PAUSE = GolfGameCanvas.FPS/2; // frames to show the ball at rest when replaying
 	private static final int DONE = 0, PAR = 1, BIRDIE = 2, EAGLE = 3, BOGEY = 4, DOUBLE_BOGEY = 5, EXCELLENT = 6;
 	private static int counter;
 	
 	private final GameManager manager;
 	private final Font font;
 	private final Area area;
+	private final AimPreview preview;
 	private boolean fullPaint, quitArmed;
 	private Message message;
 	private long lastClick;
+	private long lastTick, elapsed;
+	private int pause;
+	private int aimX, aimY; // speed of the last swipe checked by aim()
 
 	/**
 	 * Creates the game renderer.
@@ -48,10 +64,12 @@ public class GameRenderer implements FrameRenderer {
 		manager = aManager;
 		font = aFont;
 		area = new Area();
+		preview = new AimPreview();
 	}
 
 	// non-javadoc: see interface
 	public boolean handleClick(final int x, final int y) {
+		preview.clear();
 		final long now = System.currentTimeMillis();
 		if (now - lastClick < 500L) {
 			if (quitArmed) {
@@ -77,42 +95,114 @@ public class GameRenderer implements FrameRenderer {
 
 	// non-javadoc: see interface
 	public void handleSwipe(final int sx, final int sy, final int ex, final int ey, final long time, final double distsq) {
+		preview.clear();
 		final Ball b = manager.getBall();
-		if (!b.isMoving()) {
-			final double v1 = ex-sx;
-			final double v2 = ey-sy;
-			final double n1 = -v2, n2 = v1;
-			final double d = v1*n2 - v2*n1;
-			if (d != 0) {
-				final double bx = b.getX(), by = b.getY();
-				final double x = ((bx-sx)*n2-(by-sy)*n1)/d;
-				final double tx = v1*x+sx;
-				final double ty = v2*x+sy;
-				
-			    if ( (bx-tx)*(bx-tx)+(by-ty)*(by-ty) < 30*30) { // swipe closer than 30 pixels to ball
-			    	if (((ex-sx)*(ex-sx)+(ey-sy)*(ey-sy))/((tx-sx)*(tx-sx)+(ty-sy)*(ty-sy)) > 1) {  //NOPMD deeply nested if okay here
-				    	final double power;
-				    	if (time > 24) {
-				    		power = 24d/time;
-				    	} else {
-				    		power = 1;
-				    	}
-				    	final double p1 = (tx-sx)*power;
-				    	final double p2 = (ty-sy)*power;
-				    	if ((p1*p1+p2*p2)>2d) {
-					    	b.addSpeed(p1, p2);
-					    	incrementStrikes();
-					    	manager.playSound(GameManager.SOUND_TEE_OFF);
-				    	}
+		if (!b.isMoving() && !b.isHoled() && !manager.isReplaying() && aim(sx, sy, ex, ey, time, false)) {
+			strike(aimX, aimY);
+		}
+	}
+
+	// non-javadoc: see interface
+	public void handleDrag(final int sx, final int sy, final int x, final int y, final long time) {
+		final Ball b = manager.getBall();
+		if (!b.isMoving() && !b.isHoled() && !manager.isReplaying() && aim(sx, sy, x, y, time, true)) {
+			preview.aim(aimX, aimY);
+		} else {
+			preview.clear();
+		}
+	}
+
+	/**
+	 * Computes the speed a swipe gives to the ball and stores it in
+	 * <code>aimX</code> and <code>aimY</code>. While the swipe is still
+	 * going on, it is assumed to go on at its current pace.
+	 * @param sx starting position
+	 * @param sy starting position
+	 * @param ex ending (or current) position
+	 * @param ey ending (or current) position
+	 * @param time duration of the swipe (so far)
+	 * @param dragging <code>true</code> if the swipe is still going on
+	 * @return <code>true</code> if the swipe hits the ball.
+	 */
+	private boolean aim(final int sx, final int sy, final int ex, final int ey, final long time, final boolean dragging) {
+		final Ball b = manager.getBall();
+		final double v1 = ex-sx;
+		final double v2 = ey-sy;
+		final double n1 = -v2, n2 = v1;
+		final double d = v1*n2 - v2*n1;
+		if (d != 0) {
+			final double bx = b.getX(), by = b.getY();
+			final double x = ((bx-sx)*n2-(by-sy)*n1)/d;
+			final double tx = v1*x+sx;
+			final double ty = v2*x+sy;
+			
+		    if ( (bx-tx)*(bx-tx)+(by-ty)*(by-ty) < 30*30) { // swipe closer than 30 pixels to ball
+		    	final double ratio = ((ex-sx)*(ex-sx)+(ey-sy)*(ey-sy))/((tx-sx)*(tx-sx)+(ty-sy)*(ty-sy));
+		    	if (ratio > 1 || (dragging && x > 0)) {  //NOPMD deeply nested if okay here
+		    		// a swipe not yet at the ball takes longer in total
+			    	final double power = Simulation.getSwipePower(ratio > 1 ? time : (long) (time/Math.sqrt(ratio)));
+			    	final double p1 = (tx-sx)*power;
+			    	final double p2 = (ty-sy)*power;
+			    	if ((p1*p1+p2*p2)>2d) {
+			    		// the speed is played as recorded, so that the stroke can be replayed exactly
+				    	aimX = Recording.quantize(Fixed.toFixed(p1));
+				    	aimY = Recording.quantize(Fixed.toFixed(p2));
+				    	return true; //NOPMD
 			    	}
-			    } 
-			}			
+		    	}
+		    } 
+		}
+		return false;
+	}
+
+	/**
+	 * Hits the ball.
+	 * @param speedX the x component of the speed (fixed-point)
+	 * @param speedY the y component of the speed (fixed-point)
+	 */
+	protected void strike(final int speedX, final int speedY) {
+		manager.strike(speedX, speedY);
+		lastTick = System.currentTimeMillis();
+		elapsed = 0;
+		incrementStrikes();
+		manager.playSound(GameManager.SOUND_TEE_OFF);
+	}
+
+	/**
+	 * Moves the ball by one physics step and plays the sounds of the step.
+	 * @param ball the ball to move
+	 */
+	private void move(final Ball ball) {
+		final int events = ball.move();
+		if ((events&Simulation.EVENT_HIT) != 0) {
+			manager.playSound(GameManager.SOUND_HIT);
+		}
+		if ((events&Simulation.EVENT_HOLED) != 0) {
+			manager.playSound(GameManager.SOUND_HOLE);
 		}
 	}
 
 	// non-javadoc: see interface
 	public boolean needsRepaint() {
-		return fullPaint || message!=null || manager.getBall().isMoving();
+		return fullPaint || message!=null || manager.getBall().isMoving() || manager.isReplaying() || preview.needsRepaint();
+	}
+
+	// non-javadoc: see interface
+	public long getFrameDelay() {
+		final Ball ball = manager.getBall();
+		if (fullPaint || message != null || manager.isReplaying() || preview.needsRepaint()) {
+			return GolfGameCanvas.FRAME_WAIT;
+		} else if (ball.isMoving()) {
+			// a slowly rolling ball needs fewer frames, the physics catches up with the time passed
+			final int speed = ball.getSquaredSpeed();
+			if (speed < VERY_SLOW) {
+				return 3*GolfGameCanvas.FRAME_WAIT;
+			} else if (speed < SLOW) {
+				return 2*GolfGameCanvas.FRAME_WAIT;
+			}
+			return GolfGameCanvas.FRAME_WAIT;
+		}
+		return GolfGameCanvas.IDLE;
 	}
 
 	// non-javadoc: see interface
@@ -123,12 +213,39 @@ public class GameRenderer implements FrameRenderer {
 			fullPaint = false;
 			graphics.drawImage(background, 0, 0, Graphics.TOP|Graphics.LEFT);
 			area.addArea(0, 0, background.getWidth(), background.getHeight());
+			preview.invalidate();
 		}
 		final Ball ball = manager.getBall();
+		preview.paint(graphics, background, ball, area);
+		if (manager.isReplaying() && message == null && !ball.isMoving() && !ball.isHoled()) {
+			replayStroke();
+		}
 		try {
 			if (ball.isMoving()) {
 				area.addArea(ball.getPixelX(), ball.getPixelY(), ball.getWidth(), ball.getHeight());
-				ball.moveAndPaint(graphics, background, manager);
+				final long start = System.currentTimeMillis();
+				if (manager.isReplaying()) {
+					// simulate the stroke at once, the frames in between are not shown
+					for (int i = REPLAY_STEPS; i-->0 && ball.isMoving(); ) {
+						move(ball);
+					}
+					elapsed = 0;
+				} else {
+					// advance the physics in fixed steps, independent of the frame rate
+					final long now = System.currentTimeMillis();
+					elapsed += now-lastTick;
+					lastTick = now;
+					int steps = MAX_STEPS;
+					while (elapsed >= TICK && ball.isMoving()) {
+						move(ball);
+						elapsed -= TICK;
+						if (--steps == 0) {
+							elapsed = 0; // too slow to catch up, drop the remaining time
+						}
+					}
+				}
+				FrameStats.getInstance().addPhysics(System.currentTimeMillis()-start);
+				ball.paint(graphics, background, ball.isMoving()?(int) (elapsed*Fixed.ONE/TICK):Fixed.ONE);
 				area.addArea(ball.getPixelX(), ball.getPixelY(), ball.getWidth(), ball.getHeight());
 				if (ball.isHoled()) {
 					handleHoled();
@@ -138,15 +255,14 @@ public class GameRenderer implements FrameRenderer {
 				}
 			} else {
 				ball.paint(graphics);
-				area.addArea((int) ball.getX(), (int) ball.getY(), ball.getWidth(), ball.getHeight());
+				area.addArea(ball.getX(), ball.getY(), ball.getWidth(), ball.getHeight());
 			}
 		} catch (IllegalArgumentException e) {
 			final Rectangle r = manager.getCurrentHole().getStartZones()[0];
 			ball.setPosition(r.cx, r.cy);
 		}
 		if (message != null) {
-			message.paint(graphics, background);
-			area.addArea(0, 16, background.getWidth(), 48); // TODO just estimated
+			message.paint(graphics, background, area);
 			if (!message.isShowing()) {
 				message = null;
 				if (ball.isHoled()) {
@@ -158,11 +274,46 @@ public class GameRenderer implements FrameRenderer {
 		return area;
 	}
 
+	// non-javadoc: see interface
+	public void repaintAll() {
+		fullPaint = true;
+	}
+
 	// non-javadoc: see interface
 	public void reset() {
 		fullPaint = true;
+		preview.clear();
 		quitArmed = false;
 		message = null;
+		pause = REPLAY_PAUSE;
+	}
+
+	/**
+	 * Plays the next stroke of the recording after a short pause.
+	 * If the recording ends, the player takes over.
+	 */
+	protected void replayStroke() {
+		if (pause > 0) {
+			pause--;
+		} else {
+			final Recording recording = manager.getRecording();
+			if (recording.peek() == Recording.STROKE) {
+				final int x = recording.getValueX(), y = recording.getValueY();
+				recording.skip();
+				pause = REPLAY_PAUSE;
+				strike(x, y);
+			} else {
+				manager.stopReplay();
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of frames a message is shown.
+	 * @return the number of frames a message is shown.
+	 */
+	private int getMessageDuration() {
+		return manager.isReplaying() ? REPLAY_PAUSE : GolfGameCanvas.FPS*2;
 	}
 
 	/**
@@ -174,7 +325,7 @@ public class GameRenderer implements FrameRenderer {
 			final StringBuffer sb = new StringBuffer(8);
 			sb.append(manager.nextStrike())
 			  .append(" (").append(h.getPar()).append(')');
-			message = new Message(font, sb.toString(), 20, GolfGameCanvas.FPS*2);
+			message = new Message(font, sb.toString(), 20, getMessageDuration());
 		}
 	}
 
@@ -215,7 +366,7 @@ public class GameRenderer implements FrameRenderer {
 			}
 			text = TEXTS[idx][counter++%TEXTS[idx].length];
 		}
-		message = new Message(font, text, 20, GolfGameCanvas.FPS*2);
+		message = new Message(font, text, 20, getMessageDuration());
 	}
 	
 }
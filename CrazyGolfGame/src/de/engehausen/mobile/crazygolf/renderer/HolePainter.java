@@ -1,6 +1,8 @@
 package de.engehausen.mobile.crazygolf.renderer;
 
+import java.io.DataInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.lang.ref.WeakReference;
 import java.util.Hashtable;
 
@@ -15,6 +17,11 @@ import de.engehausen.mobile.crazygolf.model.Hole;
 
 /**
  * The hole painter is responsible for painting an image of the hole.
+ * The graphics of the elements are read from the atlas images if there
+ * is an atlas (see {@link Constants#ATLAS_INDEX}), otherwise from the
+ * file of each element. Flipped elements are drawn from flipped copies
+ * of their graphics, as transformed drawing is slow on many devices;
+ * the copies are made when first needed and are kept within a budget.
  */
 public class HolePainter {
 	
@@ -25,9 +32,17 @@ public class HolePainter {
 		Sprite.TRANS_ROT180
 	};
 	
+	private static final int ATLAS_VERSION = 1;
+	private static final int CACHE_BUDGET = 96*1024; // pixels of flipped copies kept at most
+
 	private final Element[] elements;
 	private final int w, h;
-	private final Hashtable images;
+	private final Hashtable images; // weak references to the images by resource name
+	private final String[] sources; // the resource name of the image holding each element, by ID
+	private final int[] sourceX, sourceY; // the position of each element in its image, by ID
+	private final Image[] flipped; // flipped copies by ID and flags
+	private final int[] cacheOrder; // ring of the keys of the flipped copies, oldest first
+	private int cacheStart, cacheCount, cachePixels;
 
 	/**
 	 * Creates the hole painter.
@@ -40,26 +55,141 @@ public class HolePainter {
 		w = width;
 		h = height;
 		images = new Hashtable();
+		sources = new String[allElements.length];
+		sourceX = new int[allElements.length];
+		sourceY = new int[allElements.length];
+		flipped = new Image[allElements.length*FLAG_MAP.length];
+		cacheOrder = new int[flipped.length];
+		for (int i = allElements.length; i-->0; ) {
+			final Element e = allElements[i];
+			sources[e.getID()] = e.getFileName();
+			sourceX[e.getID()] = e.getOffset();
+		}
+		readAtlas();
 	}
 	
 	/**
-	 * Returns an image for the given element.
+	 * Returns the image holding the graphics of the given element;
+	 * the graphics are found at {@link #getSourceX(Element)} and
+	 * {@link #getSourceY(Element)} in the image.
 	 * @param element the element for which to return an image.
-	 * @return the image of the element.
+	 * @return the image holding the graphics of the element.
 	 */
 	public Image getImage(final Element element) {
-		final WeakReference ref = (WeakReference) images.get(element.getName());
+		final String name = sources[element.getID()];
+		final WeakReference ref = (WeakReference) images.get(name);
 		Image result = null;
 		if (ref != null) {
 			result = (Image) ref.get();
 		}
 		if (result == null) {
-			result = readImage(element.getFileName());
-			images.put(element.getName(), new WeakReference(result));
+			result = readImage(name);
+			images.put(name, new WeakReference(result));
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the x-position of the graphics of the given element
+	 * in its image.
+	 * @param element the element
+	 * @return the x-position of the graphics in the image.
+	 */
+	public int getSourceX(final Element element) {
+		return sourceX[element.getID()];
+	}
+
+	/**
+	 * Returns the y-position of the graphics of the given element
+	 * in its image.
+	 * @param element the element
+	 * @return the y-position of the graphics in the image.
+	 */
+	public int getSourceY(final Element element) {
+		return sourceY[element.getID()];
+	}
+
+	/**
+	 * Returns a new image holding only the graphics of the given element.
+	 * @param element the element for which to return an image.
+	 * @return the image of the element.
+	 */
+	public Image createImage(final Element element) {
+		return Image.createImage(getImage(element), getSourceX(element), getSourceY(element), element.getWidth(), element.getHeight(), Sprite.TRANS_NONE);
+	}
+
+	/**
+	 * Returns a flipped copy of the graphics of the given element. The
+	 * copy is made if there is none yet; the oldest copies are dropped
+	 * to stay within the budget.
+	 * @param e the element
+	 * @param flags the flip flags of the element operation
+	 * @return the flipped copy, or <code>null</code> if the element is too large for the budget.
+	 */
+	private Image getFlipped(final Element e, final int flags) {
+		final int key = e.getID()*FLAG_MAP.length+flags;
+		Image result = flipped[key];
+		if (result == null) {
+			final int size = e.getWidth()*e.getHeight();
+			if (size > CACHE_BUDGET) {
+				return null; //NOPMD
+			}
+			while (cachePixels+size > CACHE_BUDGET) {
+				final int oldest = cacheOrder[cacheStart];
+				cacheStart = (cacheStart+1)%cacheOrder.length;
+				cacheCount--;
+				cachePixels -= flipped[oldest].getWidth()*flipped[oldest].getHeight();
+				flipped[oldest] = null;
+			}
+			result = Image.createImage(getImage(e), getSourceX(e), getSourceY(e), e.getWidth(), e.getHeight(), FLAG_MAP[flags]);
+			flipped[key] = result;
+			cacheOrder[(cacheStart+cacheCount++)%cacheOrder.length] = key;
+			cachePixels += size;
 		}
 		return result;
 	}
 
+	/**
+	 * Reads the atlas index, if there is one, and moves the graphics of
+	 * the elements listed in it to their atlas image. The index starts
+	 * with a version byte, followed by the number of atlas images and
+	 * their resource names, the number of element files and, for each,
+	 * its name, the number of its atlas image and its position in it.
+	 */
+	private void readAtlas() {
+		final InputStream in = getClass().getResourceAsStream(Constants.ATLAS_INDEX);
+		if (in == null) {
+			return;
+		}
+		try {
+			final DataInputStream data = new DataInputStream(in);
+			if (data.readByte() != ATLAS_VERSION) {
+				throw new IOException();
+			}
+			final String[] pages = new String[data.readByte()];
+			for (int i = 0; i < pages.length; i++) {
+				pages[i] = data.readUTF();
+			}
+			final Hashtable files = new Hashtable();
+			for (int i = data.readShort(); i-->0; ) {
+				final String file = data.readUTF();
+				files.put(file, new int[] { data.readByte(), data.readShort(), data.readShort() });
+			}
+			data.close();
+			for (int i = elements.length; i-->0; ) {
+				final int id = elements[i].getID();
+				final int[] position = (int[]) files.get(sources[id]);
+				if (position != null) {
+					sources[id] = pages[position[0]];
+					sourceX[id] += position[1];
+					sourceY[id] = position[2];
+				}
+			}
+		} catch (IOException e) {
+			throw new IllegalStateException("cannot read "+Constants.ATLAS_INDEX);
+		}
+	}
+
 	/**
 	 * Reads the image for the given file name.
 	 * @param name the file name of the image
@@ -74,11 +204,22 @@ public class HolePainter {
 	}
 
 	/**
-	 * Renders the given hole onto the given graphics.
+	 * Renders the given hole onto the given graphics. If the graphics
+	 * of the hole were painted in advance, they are read from their
+	 * image; otherwise the hole is painted from its elements.
 	 * @param g the graphics to render on
 	 * @param hole the hole to render.
 	 */
 	public void render(final Graphics g, final Hole hole) {
+		final String name = hole.getBackgroundName();
+		if (name != null) {
+			try {
+				g.drawImage(Image.createImage(name), 0, 0, Graphics.TOP|Graphics.LEFT);
+				return;
+			} catch (IOException e) { //NOPMD
+				// paint from the elements instead
+			}
+		}
 		g.setColor(Constants.LAWN_GREEN);
 		g.fillRect(0, 0, w, h);
 		final ElementOp[] operations = hole.getOperations();
@@ -96,8 +237,13 @@ public class HolePainter {
 	 * @param op the operation to perform on the element
 	 */
 	public void renderElement(final Graphics g, final Element e, final ElementOp op) {
-		final Image image = getImage(e);
-		g.drawRegion(image, e.getOffset(), 0, e.getWidth(), e.getHeight(), FLAG_MAP[op.flags], op.x, op.y, Graphics.TOP|Graphics.LEFT);
+		final Image copy = op.flags == 0 ? null : getFlipped(e, op.flags);
+		if (copy == null) {
+			final int id = e.getID();
+			g.drawRegion(getImage(e), sourceX[id], sourceY[id], e.getWidth(), e.getHeight(), FLAG_MAP[op.flags], op.x, op.y, Graphics.TOP|Graphics.LEFT);
+		} else {
+			g.drawImage(copy, op.x, op.y, Graphics.TOP|Graphics.LEFT);
+		}
 //		if (e.hasDelta()) {
 //			paintArrows(g, op.x+(e.getWidth()/2), op.y+(e.getHeight()/2), getVector(e.getDeltaX(), 1, op.vectorFlags), getVector(e.getDeltaY(), 2, op.vectorFlags), 0.2d);
 //		}
@@ -9,6 +9,7 @@ import de.engehausen.mobile.crazygolf.Area;
 import de.engehausen.mobile.crazygolf.Font;
 import de.engehausen.mobile.crazygolf.FrameRenderer;
 import de.engehausen.mobile.crazygolf.GameManager;
+import de.engehausen.mobile.crazygolf.GolfGameCanvas;
 
 /**
  * Renders the introductory text before the game is played.
@@ -45,11 +46,15 @@ public class IntroRenderer implements FrameRenderer {
 		// ignore
 	}
 
+	// non-javadoc: see interface
+	public void handleDrag(final int sx, final int sy, final int x, final int y, final long time) {
+		// ignore
+	}
+
 	// non-javadoc: see interface
 	public Area paint(final Graphics graphics) {
 		int pos = manager.getWidth() - 64;
-		graphics.drawImage(manager.getCurrentBackground(), 0, 0, Graphics.TOP|Graphics.LEFT);
-		Util.getInstance().grayOut(graphics, 0, 0, manager.getWidth(), manager.getHeight());
+		graphics.drawImage(manager.getDimmedBackground(), 0, 0, Graphics.TOP|Graphics.LEFT);
 		font.drawStringCentered(GOLF_COURSE + manager.getCurrentCourse().getName(), graphics, pos, Font.ORIENTATION_VERTICAL);
 		pos -= 56;
 		font.drawStringCentered("instructions: to place the ball touch", graphics, pos, Font.ORIENTATION_VERTICAL);
@@ -67,6 +72,11 @@ public class IntroRenderer implements FrameRenderer {
 		return null;
 	}
 	
+	// non-javadoc: see interface
+	public void repaintAll() {
+		repaint = true;
+	}
+
 	// non-javadoc: see interface
 	public void reset() {
 		repaint = true;
@@ -77,4 +87,9 @@ public class IntroRenderer implements FrameRenderer {
 		return repaint;
 	}
 
+	// non-javadoc: see interface
+	public long getFrameDelay() {
+		return GolfGameCanvas.IDLE;
+	}
+
 }
\ No newline at end of file
@@ -6,6 +6,7 @@ import de.engehausen.mobile.crazygolf.Area;
 import de.engehausen.mobile.crazygolf.Font;
 import de.engehausen.mobile.crazygolf.FrameRenderer;
 import de.engehausen.mobile.crazygolf.GameManager;
+import de.engehausen.mobile.crazygolf.GolfGameCanvas;
 import de.engehausen.mobile.crazygolf.model.Player;
 
 /**
@@ -48,16 +49,25 @@ public class TableRenderer implements FrameRenderer {
 		// ignore
 	}
 
+	// non-javadoc: see interface
+	public void handleDrag(final int sx, final int sy, final int x, final int y, final long time) {
+		// ignore
+	}
+
 	// non-javadoc: see interface
 	public boolean needsRepaint() {
 		return repaint;
 	}
 
+	// non-javadoc: see interface
+	public long getFrameDelay() {
+		return GolfGameCanvas.IDLE;
+	}
+
 	// non-javadoc: see interface
 	public Area paint(final Graphics graphics) {
 		repaint = false;
-		graphics.drawImage(manager.getCurrentBackground(), 0, 0, Graphics.TOP|Graphics.LEFT);
-		Util.getInstance().grayOut(graphics, 0, 0, manager.getWidth(), manager.getHeight());
+		graphics.drawImage(manager.getDimmedBackground(), 0, 0, Graphics.TOP|Graphics.LEFT);
 		int pos = manager.getWidth()-64;
 		font.drawStringCentered("current standings", graphics, pos, Font.ORIENTATION_VERTICAL);
 		pos -= 48;
@@ -76,7 +86,7 @@ public class TableRenderer implements FrameRenderer {
 				final String str;
 				if (s < 10) {
 					if (s>0) {
-						str = Integer.toString(s);						
+						str = COLUMNS[s-1]; // the text of the number
 					} else {
 						str = "-";
 					}
@@ -90,6 +100,11 @@ public class TableRenderer implements FrameRenderer {
 		return null;
 	}
 	
+	// non-javadoc: see interface
+	public void repaintAll() {
+		repaint = true;
+	}
+
 	// non-javadoc: see interface
 	public void reset() {
 		repaint = true;
@@ -10,6 +10,7 @@ import de.engehausen.mobile.crazygolf.Constants;
 import de.engehausen.mobile.crazygolf.Font;
 import de.engehausen.mobile.crazygolf.FrameRenderer;
 import de.engehausen.mobile.crazygolf.GameManager;
+import de.engehausen.mobile.crazygolf.GolfGameCanvas;
 import de.engehausen.mobile.crazygolf.model.Hole;
 import de.engehausen.mobile.crazygolf.model.Player;
 
@@ -46,11 +47,21 @@ public class WinnerRenderer implements FrameRenderer {
 		handleClick(sx, sy);
 	}
 
+	// non-javadoc: see interface
+	public void handleDrag(final int sx, final int sy, final int x, final int y, final long time) {
+		// ignore
+	}
+
 	// non-javadoc: see interface
 	public boolean needsRepaint() {
 		return repaint;
 	}
 
+	// non-javadoc: see interface
+	public long getFrameDelay() {
+		return GolfGameCanvas.IDLE;
+	}
+
 	// non-javadoc: see interface
 	public Area paint(final Graphics graphics) {
 		repaint = false;
@@ -69,6 +80,11 @@ public class WinnerRenderer implements FrameRenderer {
 		return null;
 	}
 
+	// non-javadoc: see interface
+	public void repaintAll() {
+		repaint = true;
+	}
+
 	// non-javadoc: see interface
 	public void reset() {
 		repaint = true;